@@ -0,0 +1,68 @@
+#!/usr/bin/env bash
+#
+# Compares startup of the default and the startup-optimized (AOT + CDS) builds.
+# For each run it reports the time from launching the JVM to the first successful request
+# and the resident set size right after that request.
+#
+# Usage: scripts/startup-benchmark.sh [runs]   (build first with: mvn -Pstartup package -DskipTests)
+
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18090}
+URL="http://localhost:${PORT}/customers/all"
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAR_NAME=customer-api-0.0.1-SNAPSHOT.jar
+DEFAULT_JAR="${ROOT}/target/${JAR_NAME}"
+APP_DIR="${ROOT}/target/application"
+
+if [[ ! -f "${APP_DIR}/application.jsa" ]]; then
+  echo "Missing ${APP_DIR}/application.jsa, build with: mvn -Pstartup package -DskipTests" >&2
+  exit 1
+fi
+
+now_ms() {
+  date +%s%3N
+}
+
+rss_kb() {
+  ps -o rss= -p "$1" | tr -d ' '
+}
+
+# prints "<time-to-first-request ms> <rss kB>"
+measure() {
+  local start pid elapsed rss
+  start=$(now_ms)
+  "$@" --server.port="${PORT}" > /dev/null 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "${URL}"; do
+    if ! kill -0 "${pid}" 2> /dev/null; then
+      echo "application exited before serving a request" >&2
+      exit 1
+    fi
+    sleep 0.05
+  done
+  elapsed=$(( $(now_ms) - start ))
+  rss=$(rss_kb "${pid}")
+  kill "${pid}"
+  wait "${pid}" 2> /dev/null || true
+  echo "${elapsed} ${rss}"
+}
+
+run() {
+  local name=$1
+  shift
+  local total_ms=0 total_rss=0 result ms rss
+  for ((i = 1; i <= RUNS; i++)); do
+    result=$(measure "$@")
+    read -r ms rss <<< "${result}"
+    printf '%-10s run %d: %6d ms  %7d kB RSS\n' "${name}" "${i}" "${ms}" "${rss}"
+    total_ms=$((total_ms + ms))
+    total_rss=$((total_rss + rss))
+  done
+  printf '%-10s mean : %6d ms  %7d kB RSS\n\n' "${name}" $((total_ms / RUNS)) $((total_rss / RUNS))
+}
+
+run default java -jar "${DEFAULT_JAR}"
+(cd "${APP_DIR}" && run optimized java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+  -Dspring.profiles.active=startup -jar "${JAR_NAME}")
@@ -0,0 +1,22 @@
+package com.example.customer.bulkhead;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the annotated method on the executor of its bulkhead, where it competes for threads and database
+ * connections only with calls of the same kind. A full bulkhead answers with 503 instead of queueing without bound.
+ * The method runs on another thread, so it does not join a transaction of its caller.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Bulkhead {
+
+    Type value();
+
+    enum Type { READ, WRITE }
+}
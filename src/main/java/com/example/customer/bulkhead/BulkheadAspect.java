@@ -0,0 +1,30 @@
+package com.example.customer.bulkhead;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves {@link Bulkhead} methods onto their bulkhead's executor.
+ * It runs before the transaction and tracing advice, so transactions and tracing spans start on the bulkhead thread.
+ */
+@Aspect
+@Component
+// right after Spring's ExposeInvocationInterceptor, which must run first for the join point to be bound
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@ConditionalOnProperty(name = "customer.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class BulkheadAspect {
+
+    @Autowired
+    private BulkheadExecutors executors;
+
+    @Around("@annotation(bulkhead)")
+    public Object around(ProceedingJoinPoint joinPoint, Bulkhead bulkhead) throws Throwable {
+        return executors.execute(bulkhead.value(), joinPoint::proceed);
+    }
+}
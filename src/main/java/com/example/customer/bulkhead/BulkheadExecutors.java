@@ -0,0 +1,189 @@
+package com.example.customer.bulkhead;
+
+import com.example.customer.exception.ServiceUnavailableException;
+import com.example.customer.repository.BulkheadRoutingDataSource;
+import com.example.customer.repository.PartitionRoutingDataSource;
+import com.example.customer.tracing.Phase;
+import com.example.customer.tracing.RequestTrace;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One bounded executor per bulkhead. The calling thread waits for the result, so at most
+ * threads + queue capacity request threads can ever be tied up by one kind of call.
+ * A call that finds the queue full is rejected, and one that waits longer than the queue timeout for a thread is
+ * abandoned before it starts; both surface as 503. Once a call is running it is always waited for, so a 503
+ * means the call had no effect.
+ */
+@Component
+@ConditionalOnProperty(name = "customer.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class BulkheadExecutors implements MeterBinder {
+
+    private final Map<Bulkhead.Type, Lane> lanes = new EnumMap<>(Bulkhead.Type.class);
+
+    /**
+     * Work run inside a bulkhead, typically the rest of an intercepted method call
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T call() throws Throwable;
+    }
+
+    @Autowired
+    public BulkheadExecutors(BulkheadProperties properties) {
+        for (Bulkhead.Type type : Bulkhead.Type.values()) {
+            lanes.put(type, new Lane(type, properties.get(type)));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lanes.values().forEach(lane -> lane.executor.shutdown());
+    }
+
+    /**
+     * Run work in the given bulkhead and wait for its result.
+     * Work started from inside a bulkhead runs inline, so nested calls cannot deadlock on a full executor.
+     * So does work started inside a transaction, so that it joins the transaction instead of starting its own
+     * on another thread.
+     */
+    public <T> T execute(Bulkhead.Type type, Work<T> work) throws Throwable {
+        if (BulkheadRoutingDataSource.currentBulkhead() != null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.call();
+        }
+        return lanes.get(type).execute(work);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Lane lane : lanes.values()) {
+            String name = lane.type.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("bulkhead.active", lane.executor, ThreadPoolExecutor::getActiveCount)
+                    .description("Calls running in the bulkhead")
+                    .tag("bulkhead", name)
+                    .register(registry);
+            Gauge.builder("bulkhead.queued", lane.executor, executor -> executor.getQueue().size())
+                    .description("Calls waiting for a bulkhead thread")
+                    .tag("bulkhead", name)
+                    .register(registry);
+            Gauge.builder("bulkhead.saturation", lane, Lane::saturation)
+                    .description("Share of the bulkhead's threads and queue slots in use")
+                    .tag("bulkhead", name)
+                    .register(registry);
+            FunctionCounter.builder("bulkhead.rejected", lane.rejected, AtomicLong::get)
+                    .description("Calls rejected because the bulkhead queue was full")
+                    .tag("bulkhead", name)
+                    .register(registry);
+            FunctionCounter.builder("bulkhead.timeouts", lane.timeouts, AtomicLong::get)
+                    .description("Calls abandoned after waiting longer than the queue timeout")
+                    .tag("bulkhead", name)
+                    .register(registry);
+        }
+    }
+
+    private static final class Lane {
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int ABANDONED = 2;
+
+        private final Bulkhead.Type type;
+        private final ThreadPoolExecutor executor;
+        private final Duration queueTimeout;
+        private final int capacity;
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+
+        Lane(Bulkhead.Type type, BulkheadProperties.Settings settings) {
+            this.type = type;
+            this.queueTimeout = settings.getQueueTimeout();
+            this.capacity = settings.getThreads() + settings.getQueueCapacity();
+            String prefix = "bulkhead-" + type.name().toLowerCase(Locale.ROOT) + "-";
+            AtomicInteger threads = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(settings.getThreads(), settings.getThreads(), 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, settings.getQueueCapacity())), runnable -> {
+                        Thread thread = new Thread(runnable, prefix + threads.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.AbortPolicy());
+        }
+
+        double saturation() {
+            return (executor.getActiveCount() + executor.getQueue().size()) / (double) capacity;
+        }
+
+        <T> T execute(Work<T> work) throws Throwable {
+            // the caller's request trace and partition follow the call onto the bulkhead thread
+            RequestTrace trace = RequestTrace.enter(Phase.BULKHEAD);
+            Integer partition = PartitionRoutingDataSource.currentPartition();
+            AtomicInteger state = new AtomicInteger(QUEUED);
+            Future<T> future;
+            try {
+                future = executor.submit(() -> {
+                    if (!state.compareAndSet(QUEUED, RUNNING)) {
+                        return null;
+                    }
+                    RequestTrace.exit(trace, Phase.BULKHEAD);
+                    RequestTrace.bind(trace);
+                    PartitionRoutingDataSource.bind(partition);
+                    BulkheadRoutingDataSource.bind(type);
+                    try {
+                        return work.call();
+                    } catch (Exception | Error e) {
+                        throw e;
+                    } catch (Throwable t) {
+                        throw new ExecutionException(t);
+                    } finally {
+                        BulkheadRoutingDataSource.bind(null);
+                        PartitionRoutingDataSource.bind(null);
+                        RequestTrace.bind(null);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                RequestTrace.exit(trace, Phase.BULKHEAD);
+                rejected.incrementAndGet();
+                throw new ServiceUnavailableException("Too many " + type.name().toLowerCase(Locale.ROOT) + " requests, try again later");
+            }
+            try {
+                try {
+                    return future.get(queueTimeout.toNanos(), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    if (state.compareAndSet(QUEUED, ABANDONED)) {
+                        executor.remove((Runnable) future);
+                        RequestTrace.exit(trace, Phase.BULKHEAD);
+                        timeouts.incrementAndGet();
+                        throw new ServiceUnavailableException("Timed out waiting to run " + type.name().toLowerCase(Locale.ROOT)
+                                + " request, try again later");
+                    }
+                    return future.get();
+                }
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof ExecutionException wrapped ? wrapped.getCause() : cause;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceUnavailableException("Interrupted while waiting for " + type.name().toLowerCase(Locale.ROOT) + " request");
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.customer.bulkhead;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Sizes of the read and write bulkheads when {@code customer.bulkhead.enabled} is set.
+ */
+@ConfigurationProperties(prefix = "customer.bulkhead")
+public class BulkheadProperties {
+    private boolean enabled = true;
+    private Settings read = new Settings(16, 64, Duration.ofSeconds(1), 16);
+    private Settings write = new Settings(4, 32, Duration.ofSeconds(2), 4);
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Settings getRead() { return read; }
+    public void setRead(Settings read) { this.read = read; }
+
+    public Settings getWrite() { return write; }
+    public void setWrite(Settings write) { this.write = write; }
+
+    public Settings get(Bulkhead.Type type) {
+        return type == Bulkhead.Type.READ ? read : write;
+    }
+
+    public static class Settings {
+        /** threads running calls */
+        private int threads;
+        /** calls that may wait for a thread before further calls are rejected */
+        private int queueCapacity;
+        /** how long a call may wait for a thread before it is abandoned */
+        private Duration queueTimeout;
+        /** connections in the bulkhead's own pool, per partition */
+        private int poolSize;
+
+        public Settings() {
+        }
+
+        public Settings(int threads, int queueCapacity, Duration queueTimeout, int poolSize) {
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+            this.queueTimeout = queueTimeout;
+            this.poolSize = poolSize;
+        }
+
+        public int getThreads() { return threads; }
+        public void setThreads(int threads) { this.threads = threads; }
+
+        public int getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+
+        public Duration getQueueTimeout() { return queueTimeout; }
+        public void setQueueTimeout(Duration queueTimeout) { this.queueTimeout = queueTimeout; }
+
+        public int getPoolSize() { return poolSize; }
+        public void setPoolSize(int poolSize) { this.poolSize = poolSize; }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.customer.config;
+
+import com.example.customer.bulkhead.Bulkhead;
+import com.example.customer.bulkhead.BulkheadProperties;
+import com.example.customer.repository.BulkheadRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class BulkheadConfig {
+
+    /**
+     * Gives each bulkhead its own connection pool, so reads never wait for connections held by writes.
+     * With partitioning enabled the same split is applied per partition by {@link PartitioningConfig}.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnExpression("${customer.bulkhead.enabled:true} and !${customer.partitions.enabled:false}")
+    public DataSource bulkheadDataSource(DataSourceProperties dataSourceProperties, BulkheadProperties bulkheads,
+                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource shared = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        shared.setPoolName("customer");
+        return withBulkheadPools(shared, bulkheads, meterRegistry.getIfAvailable());
+    }
+
+    /**
+     * Route connections of bulkhead threads to pools of their own, configured like the shared pool
+     * @param shared pool for work outside any bulkhead
+     */
+    static DataSource withBulkheadPools(HikariDataSource shared, BulkheadProperties bulkheads, MeterRegistry meterRegistry) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (Bulkhead.Type type : Bulkhead.Type.values()) {
+            HikariDataSource pool = new HikariDataSource();
+            shared.copyStateTo(pool);
+            pool.setPoolName(shared.getPoolName() + "-" + type.name().toLowerCase(Locale.ROOT));
+            pool.setMaximumPoolSize(bulkheads.get(type).getPoolSize());
+            if (meterRegistry != null) {
+                pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            }
+            targets.put(type, pool);
+        }
+        BulkheadRoutingDataSource routing = new BulkheadRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(shared);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.customer.config;
+
+import com.example.customer.model.Customer;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.CacheSettings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * JCache (Ehcache) backed Hibernate second-level cache for customers.
+ * Regions are created here rather than in an ehcache.xml so their sizes come from application properties.
+ * The query cache is only enabled without partitioning: cached query results are not keyed by partition,
+ * so a fan-out query would be answered from the first partition's result.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    @Autowired(required = false)
+    private PartitionProperties partitionProperties;
+
+    @Value("${customer.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${customer.cache.entity.max-entries:10000}")
+    private long entityMaxEntries;
+
+    @Value("${customer.cache.entity.time-to-live:PT10M}")
+    private Duration entityTimeToLive;
+
+    @Value("${customer.cache.query.max-entries:1000}")
+    private long queryMaxEntries;
+
+    @Value("${customer.cache.query.time-to-live:PT1M}")
+    private Duration queryTimeToLive;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        org.ehcache.config.Configuration configuration = ConfigurationBuilder.newConfigurationBuilder()
+                .withCache(Customer.CACHE_REGION, region(entityMaxEntries, entityTimeToLive))
+                .withCache(Customer.QUERY_CACHE_REGION, region(queryMaxEntries, queryTimeToLive))
+                .withCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, region(queryMaxEntries, queryTimeToLive))
+                // update timestamps must outlive every cached query result, so they never expire
+                .withCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, region(1000, null))
+                .build();
+        // a manager per application context, so contexts in the same JVM (tests) do not share regions
+        return provider.getCacheManager(URI.create("customer-api-hibernate-" + System.identityHashCode(this)), configuration);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        boolean partitioned = partitionProperties != null && partitionProperties.isEnabled();
+        return properties -> {
+            properties.put(CacheSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(CacheSettings.USE_QUERY_CACHE, enabled && !partitioned);
+            properties.put(CacheSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CacheConfiguration<Object, Object> region(long maxEntries, Duration timeToLive) {
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder(
+                Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries));
+        if (timeToLive != null) {
+            builder = builder.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.customer.config;
+
+import com.example.customer.model.Customer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+/**
+ * Publishes hits, misses and hit ratio of the customer second-level and query cache regions.
+ * Counts stay at zero unless {@code hibernate.generate_statistics} is on.
+ */
+@Component
+public class HibernateCacheMetrics implements MeterBinder {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        bind(registry, Customer.CACHE_REGION, statistics, s -> s.getDomainDataRegionStatistics(Customer.CACHE_REGION));
+        bind(registry, Customer.QUERY_CACHE_REGION, statistics, s -> s.getQueryRegionStatistics(Customer.QUERY_CACHE_REGION));
+    }
+
+    private static void bind(MeterRegistry registry, String region, Statistics statistics,
+                             Function<Statistics, CacheRegionStatistics> lookup) {
+        FunctionCounter.builder("hibernate.cache.hits", statistics, s -> hits(lookup.apply(s)))
+                .description("Second-level cache hits")
+                .tag("region", region)
+                .register(registry);
+        FunctionCounter.builder("hibernate.cache.misses", statistics, s -> misses(lookup.apply(s)))
+                .description("Second-level cache misses")
+                .tag("region", region)
+                .register(registry);
+        Gauge.builder("hibernate.cache.hit.ratio", statistics, s -> {
+                    CacheRegionStatistics stats = lookup.apply(s);
+                    double requests = hits(stats) + misses(stats);
+                    return requests == 0 ? 0 : hits(stats) / requests;
+                })
+                .description("Share of second-level cache lookups that were hits")
+                .tag("region", region)
+                .register(registry);
+    }
+
+    private static double hits(CacheRegionStatistics stats) {
+        return stats == null ? 0 : stats.getHitCount();
+    }
+
+    private static double misses(CacheRegionStatistics stats) {
+        return stats == null ? 0 : stats.getMissCount();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.customer.config;
+
+import com.example.customer.service.CustomerEventPublisher;
+import com.example.customer.service.FileCustomerEventPublisher;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * Publishes outbox events to a local file unless another {@link CustomerEventPublisher} bean is defined.
+ */
+@Configuration
+@ConditionalOnProperty(name = "customer.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(CustomerEventPublisher.class)
+    public CustomerEventPublisher customerEventPublisher(ObjectMapper objectMapper,
+                                                         @Value("${customer.outbox.file:data/outbox/customer-events.jsonl}") String file) {
+        return new FileCustomerEventPublisher(objectMapper, Paths.get(file));
+    }
+}
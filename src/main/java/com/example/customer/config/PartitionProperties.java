@@ -0,0 +1,40 @@
+package com.example.customer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Datasources that customers are hash-partitioned across when {@code customer.partitions.enabled} is set.
+ */
+@ConfigurationProperties(prefix = "customer.partitions")
+public class PartitionProperties {
+    private boolean enabled;
+    private int maximumPoolSize = 10;
+    private List<Partition> datasources = new ArrayList<>();
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getMaximumPoolSize() { return maximumPoolSize; }
+    public void setMaximumPoolSize(int maximumPoolSize) { this.maximumPoolSize = maximumPoolSize; }
+
+    public List<Partition> getDatasources() { return datasources; }
+    public void setDatasources(List<Partition> datasources) { this.datasources = datasources; }
+
+    public static class Partition {
+        private String url;
+        private String username;
+        private String password;
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+
+        public String getPassword() { return password; }
+        public void setPassword(String password) { this.password = password; }
+    }
+}
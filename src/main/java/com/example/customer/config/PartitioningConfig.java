@@ -0,0 +1,59 @@
+package com.example.customer.config;
+
+import com.example.customer.bulkhead.BulkheadProperties;
+import com.example.customer.repository.PartitionRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(PartitionProperties.class)
+public class PartitioningConfig {
+
+    /**
+     * Replaces the single datasource with one that routes each connection to the current partition.
+     * Connections are fetched lazily so the partition can be chosen inside an already started transaction.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "customer.partitions.enabled", havingValue = "true")
+    public DataSource partitionedDataSource(PartitionProperties properties, BulkheadProperties bulkheads,
+                                            ObjectProvider<MeterRegistry> meterRegistry) {
+        List<PartitionProperties.Partition> partitions = properties.getDatasources();
+        if (partitions.isEmpty()) {
+            throw new IllegalStateException("customer.partitions.datasources must list at least one datasource");
+        }
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < partitions.size(); i++) {
+            PartitionProperties.Partition partition = partitions.get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(partition.getUrl())
+                    .username(partition.getUsername())
+                    .password(partition.getPassword())
+                    .build();
+            dataSource.setPoolName("customer-partition-" + i);
+            dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+            targets.put(i, bulkheads.isEnabled()
+                    ? BulkheadConfig.withBulkheadPools(dataSource, bulkheads, meterRegistry.getIfAvailable())
+                    : dataSource);
+        }
+        PartitionRoutingDataSource routing = new PartitionRoutingDataSource();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(targets.get(0));
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
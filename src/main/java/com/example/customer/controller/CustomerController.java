@@ -1,11 +1,19 @@
 package com.example.customer.controller;
 
 import com.example.customer.exception.CustomerNotFoundException;
+import com.example.customer.exception.ErrorResponse;
+import com.example.customer.model.BulkUpdateResult;
 import com.example.customer.model.Customer;
+import com.example.customer.model.CustomerSegment;
+import com.example.customer.model.PurchaseEvent;
+import com.example.customer.model.SpendCorrection;
+import com.example.customer.service.CustomerJsonCache;
+import com.example.customer.service.CustomerSegmentIndex;
 import com.example.customer.service.CustomerService;
 import io.micrometer.common.util.StringUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -14,9 +22,13 @@ import org.apache.coyote.BadRequestException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -31,6 +43,9 @@ public class CustomerController {
     @Autowired
     private CustomerService service;
 
+    @Autowired
+    private CustomerJsonCache jsonCache;
+
     @Operation(summary = "Create a new customer",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Customer created",
@@ -68,18 +83,19 @@ public class CustomerController {
             responses = {
                     @ApiResponse(responseCode = "200", description = "Customer found",
                             content = @Content(mediaType = "application/json", schema = @Schema(implementation = Customer.class))),
-                    @ApiResponse(responseCode = "404", description = "Customer not found")
+                    @ApiResponse(responseCode = "404", description = "Customer not found",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
             }
     )
     @GetMapping("/{id}")
-    public Customer getCustomerById(
+    public ResponseEntity<byte[]> getCustomerById(
             @Parameter(description = "UUID of the customer to fetch", required = true)
             @PathVariable UUID id) {
         logger.info("Received request to fetch customer by ID: {}", id);
-        return service.getById(id).orElseThrow(() -> {
+        return json(service.getById(id).orElseThrow(() -> {
             logger.warn("Customer not found with ID: {}", id);
             return new CustomerNotFoundException("Customer not found");
-        });
+        }));
     }
 
     @Operation(
@@ -90,7 +106,13 @@ public class CustomerController {
                     @Parameter(name = "name", description = "Name of the customer", required = false)
             }
     )
-    @GetMapping(params = "name")
+    // name and email lookups share GET /customers: springdoc merges responses declared inside @Operation, and
+    // media types other than the declared one, with the schema it infers from each return type
+    @ApiResponse(responseCode = "200", description = "Customers found",
+            content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = Customer.class))))
+    @ApiResponse(responseCode = "404", description = "Customer not found",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    @GetMapping(params = "name", produces = MediaType.APPLICATION_JSON_VALUE)
     public List<Customer> getCustomerByName(
             @Parameter(description = "Name of the customer to fetch", required = false)
             @RequestParam(required = false) String name) {
@@ -106,15 +128,54 @@ public class CustomerController {
                     @Parameter(name = "email", description = "Email of the customer", required = false)
             }
     )
-    @GetMapping(params = "email")
-    public Customer getCustomerByEmail(
+    @ApiResponse(responseCode = "200", description = "Customer found",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = Customer.class)))
+    @ApiResponse(responseCode = "404", description = "Customer not found",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    @GetMapping(params = "email", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getCustomerByEmail(
             @Parameter(description = "Email of the customer to fetch", required = false)
             @RequestParam(required = false) String email) {
         logger.info("Received request to fetch customer by email: {}", email);
-        return service.getByEmail(email).orElseThrow(() -> {
+        return json(service.getByEmail(email).orElseThrow(() -> {
             logger.warn("Customer not found with email: {}", email);
             return new CustomerNotFoundException("Customer not found");
-        });
+        }));
+    }
+
+    @Operation(summary = "Query a customer segment",
+            description = "Counts customers by annual spend, last purchase date and tier, and returns a page of their ids. "
+                    + "All bounds are optional and inclusive.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Segment count and ids",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = CustomerSegment.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid input")
+            }
+    )
+    @GetMapping("/segments")
+    public CustomerSegment getSegment(
+            @Parameter(description = "Minimum annual spend") @RequestParam(required = false) BigDecimal minSpend,
+            @Parameter(description = "Maximum annual spend") @RequestParam(required = false) BigDecimal maxSpend,
+            @Parameter(description = "Earliest last purchase date")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate lastPurchaseFrom,
+            @Parameter(description = "Latest last purchase date")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate lastPurchaseTo,
+            @Parameter(description = "Tiers to include: Silver, Gold, Platinum") @RequestParam(required = false) List<String> tier,
+            @Parameter(description = "Only count, without ids") @RequestParam(defaultValue = "false") boolean countOnly,
+            @Parameter(description = "Zero-based page of ids") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Ids per page, at most 10000") @RequestParam(defaultValue = "100") int size) throws BadRequestException {
+        logger.info("Received segment query: spend {}-{}, last purchase {}-{}, tiers {}",
+                minSpend, maxSpend, lastPurchaseFrom, lastPurchaseTo, tier);
+        if (page < 0 || size < 1 || size > 10_000) {
+            throw new BadRequestException("page must be >= 0 and size between 1 and 10000");
+        }
+        CustomerSegmentIndex.SegmentQuery query = new CustomerSegmentIndex.SegmentQuery(
+                minSpend == null ? null : CustomerSegmentIndex.toCents(minSpend),
+                maxSpend == null ? null : CustomerSegmentIndex.toCents(maxSpend),
+                lastPurchaseFrom == null ? null : (int) lastPurchaseFrom.toEpochDay(),
+                lastPurchaseTo == null ? null : (int) lastPurchaseTo.toEpochDay(),
+                tierMask(tier));
+        return service.getSegment(query, countOnly, page, size);
     }
 
     @Operation(summary = "Update a customer",
@@ -134,6 +195,53 @@ public class CustomerController {
         return service.update(id, customer);
     }
 
+    @Operation(summary = "Correct annual spend and last purchase date of many customers",
+            description = "Each item sets annualSpend and/or lastPurchaseDate of one customer; fields left out keep their value. "
+                    + "Ids that match no customer are listed in notFound.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Corrections applied",
+                            content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkUpdateResult.class))),
+                    @ApiResponse(responseCode = "400", description = "Invalid input")
+            }
+    )
+    @PatchMapping
+    public BulkUpdateResult bulkUpdateCustomers(@RequestBody List<SpendCorrection> corrections) throws BadRequestException {
+        logger.info("Received request to correct {} customers", corrections == null ? 0 : corrections.size());
+        if (corrections == null || corrections.isEmpty()) {
+            throw new BadRequestException("corrections required");
+        }
+        for (int i = 0; i < corrections.size(); i++) {
+            SpendCorrection correction = corrections.get(i);
+            if (correction == null || correction.getId() == null) {
+                throw new BadRequestException("id is missing at index " + i);
+            }
+            if (correction.getAnnualSpend() == null && correction.getLastPurchaseDate() == null) {
+                throw new BadRequestException("annualSpend or lastPurchaseDate required at index " + i);
+            }
+            if (correction.getAnnualSpend() != null && correction.getAnnualSpend().signum() < 0) {
+                throw new BadRequestException("annualSpend must not be negative at index " + i);
+            }
+        }
+        return service.bulkUpdate(corrections);
+    }
+
+    @Operation(summary = "Record a purchase for a customer",
+            description = "Purchases are aggregated and applied to annualSpend and lastPurchaseDate asynchronously",
+            responses = {
+                    @ApiResponse(responseCode = "202", description = "Purchase accepted"),
+                    @ApiResponse(responseCode = "400", description = "Invalid input")
+            }
+    )
+    @PostMapping("/{id}/purchases")
+    public ResponseEntity<Void> recordPurchase(
+            @Parameter(description = "UUID of the customer who made the purchase", required = true)
+            @PathVariable UUID id,
+            @RequestBody @Valid PurchaseEvent event) {
+        logger.info("Received purchase event for customer with ID: {}", id);
+        service.recordPurchase(id, event);
+        return ResponseEntity.accepted().build();
+    }
+
     @Operation(summary = "Delete a customer",
             responses = {
                     @ApiResponse(responseCode = "204", description = "Customer deleted"),
@@ -148,4 +256,27 @@ public class CustomerController {
         service.delete(id);
         return ResponseEntity.ok("success");
     }
+
+    private static int tierMask(List<String> tiers) throws BadRequestException {
+        if (tiers == null || tiers.isEmpty()) {
+            return CustomerSegmentIndex.SegmentQuery.ALL_TIERS;
+        }
+        int mask = 0;
+        for (String tier : tiers) {
+            switch (tier.trim().toLowerCase()) {
+                case "silver" -> mask |= 1 << CustomerSegmentIndex.SILVER;
+                case "gold" -> mask |= 1 << CustomerSegmentIndex.GOLD;
+                case "platinum" -> mask |= 1 << CustomerSegmentIndex.PLATINUM;
+                default -> throw new BadRequestException("Unknown tier: " + tier);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Write the customer's cached JSON straight to the response, skipping message conversion
+     */
+    private ResponseEntity<byte[]> json(Customer customer) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(jsonCache.toJson(customer));
+    }
 }
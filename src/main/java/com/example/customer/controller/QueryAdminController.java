@@ -0,0 +1,69 @@
+package com.example.customer.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Admin endpoint exposing Hibernate statistics of the queries run since startup, most total time first,
+ * and the slowest statements seen above {@code customer.queries.slow-threshold-ms}
+ */
+@RestController
+@RequestMapping("/admin/queries")
+public class QueryAdminController {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public record QueryView(String query, long executions, double meanMs, long maxMs, long totalMs, long rows,
+                            long cacheHits, long cacheMisses) {
+        static QueryView of(String query, QueryStatistics stats) {
+            return new QueryView(query, stats.getExecutionCount(), stats.getExecutionAvgTimeAsDouble(),
+                    stats.getExecutionMaxTime(), stats.getExecutionTotalTime(), stats.getExecutionRowCount(),
+                    stats.getCacheHitCount(), stats.getCacheMissCount());
+        }
+    }
+
+    public record SlowQueryView(String sql, long maxMs) {
+    }
+
+    public record QueryReport(Instant since, long statementsPrepared, long entitiesLoaded, long entitiesFetched,
+                              long planCacheHits, long planCacheMisses, List<QueryView> queries,
+                              List<SlowQueryView> slowQueries) {
+    }
+
+    @Operation(summary = "List per-query execution counts, times and rows returned")
+    @GetMapping
+    public QueryReport queries(
+            @Parameter(description = "Maximum number of queries to return")
+            @RequestParam(defaultValue = "20") int limit) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<QueryView> queries = Arrays.stream(statistics.getQueries())
+                .map(query -> QueryView.of(query, statistics.getQueryStatistics(query)))
+                .sorted(Comparator.comparingLong(QueryView::totalMs).thenComparingLong(QueryView::executions).reversed())
+                .limit(Math.max(0, limit))
+                .toList();
+        // only filled in when hibernate.log_slow_query is set
+        List<SlowQueryView> slowQueries = statistics.getSlowQueries().entrySet().stream()
+                .map(slow -> new SlowQueryView(slow.getKey(), slow.getValue()))
+                .sorted(Comparator.comparingLong(SlowQueryView::maxMs).reversed())
+                .limit(Math.max(0, limit))
+                .toList();
+        return new QueryReport(statistics.getStart(), statistics.getPrepareStatementCount(),
+                statistics.getEntityLoadCount(), statistics.getEntityFetchCount(),
+                statistics.getQueryPlanCacheHitCount(), statistics.getQueryPlanCacheMissCount(), queries, slowQueries);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.customer.controller;
+
+import com.example.customer.tracing.RequestTrace;
+import com.example.customer.tracing.SlowRequestLog;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admin endpoint exposing the slowest recently traced requests
+ */
+@RestController
+@RequestMapping("/admin/traces")
+public class TraceAdminController {
+
+    @Autowired
+    private SlowRequestLog slowRequestLog;
+
+    public record TraceView(String method, String uri, int status, Instant startedAt, double totalMs,
+                            Map<String, Double> phasesMs) {
+        static TraceView of(RequestTrace trace) {
+            return new TraceView(trace.getMethod(), trace.getUri(), trace.getStatus(),
+                    Instant.ofEpochMilli(trace.getStartedAtMillis()),
+                    trace.getTotalNanos() / (double) TimeUnit.MILLISECONDS.toNanos(1), trace.getPhaseMillis());
+        }
+    }
+
+    @Operation(summary = "List the slowest recent requests with their per-phase timings")
+    @GetMapping
+    public List<TraceView> slowest(
+            @Parameter(description = "Maximum number of requests to return")
+            @RequestParam(defaultValue = "20") int limit) {
+        return slowRequestLog.slowest(Math.max(0, limit)).stream().map(TraceView::of).toList();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.customer.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Async appender that counts the events it sheds instead of dropping them silently.
+ * Discarded events are INFO-and-below lines skipped because the queue crossed the discarding threshold;
+ * dropped events are any events lost because the queue was full and {@code neverBlock} is set.
+ * The full-queue check races with the consumer, so the dropped count is approximate.
+ */
+public class DropCountingAsyncAppender extends AsyncAppender {
+
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (getRemainingCapacity() < getDiscardingThreshold() && isDiscardable(event)) {
+            discarded.increment();
+            return;
+        }
+        if (isNeverBlock() && getRemainingCapacity() == 0) {
+            dropped.increment();
+            return;
+        }
+        super.append(event);
+    }
+
+    public long getDiscarded() {
+        return discarded.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+}
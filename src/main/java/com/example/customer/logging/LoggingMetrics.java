@@ -0,0 +1,53 @@
+package com.example.customer.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+
+/**
+ * Publishes how many log lines were shed by sampling or by the async appender.
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        for (TurboFilter filter : context.getTurboFilterList()) {
+            if (filter instanceof RateLimitingTurboFilter sampling) {
+                FunctionCounter.builder("logging.sampled.out", sampling, RateLimitingTurboFilter::getSampledOut)
+                        .description("Log lines denied by rate-limited sampling")
+                        .tag("logger", sampling.getLoggerName())
+                        .register(registry);
+            }
+        }
+        Iterator<Appender<ILoggingEvent>> appenders = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (appenders.next() instanceof DropCountingAsyncAppender async) {
+                FunctionCounter.builder("logging.async.discarded", async, DropCountingAsyncAppender::getDiscarded)
+                        .description("INFO and lower lines discarded because the async queue was nearly full")
+                        .tag("appender", async.getName())
+                        .register(registry);
+                FunctionCounter.builder("logging.async.dropped", async, DropCountingAsyncAppender::getDropped)
+                        .description("Log lines dropped because the async queue was full")
+                        .tag("appender", async.getName())
+                        .register(registry);
+                Gauge.builder("logging.async.queue.remaining", async, DropCountingAsyncAppender::getRemainingCapacity)
+                        .description("Free slots in the async log queue")
+                        .tag("appender", async.getName())
+                        .register(registry);
+            }
+        }
+    }
+}
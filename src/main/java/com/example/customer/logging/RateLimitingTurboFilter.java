@@ -0,0 +1,70 @@
+package com.example.customer.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lets at most {@code permitsPerSecond} INFO-and-below events per second through for one logger
+ * (and its children); the rest are denied before an event is even created. WARN and ERROR always pass.
+ * Denied events are counted so shed lines are visible in metrics.
+ */
+public class RateLimitingTurboFilter extends TurboFilter {
+
+    private String loggerName;
+    private int permitsPerSecond = 100;
+
+    private final AtomicLong currentSecond = new AtomicLong();
+    private final AtomicInteger permitsUsed = new AtomicInteger();
+    private final LongAdder sampledOut = new LongAdder();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format is null for isXxxEnabled() checks, which must not use up permits
+        if (format == null || level.isGreaterOrEqual(Level.WARN) || !appliesTo(logger)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        long second = System.currentTimeMillis() / 1000;
+        long window = currentSecond.get();
+        if (second != window && currentSecond.compareAndSet(window, second)) {
+            permitsUsed.set(0);
+        }
+        if (permitsUsed.incrementAndGet() <= permitsPerSecond) {
+            return FilterReply.NEUTRAL;
+        }
+        sampledOut.increment();
+        return FilterReply.DENY;
+    }
+
+    private boolean appliesTo(Logger logger) {
+        String name = logger.getName();
+        return name.startsWith(loggerName)
+                && (name.length() == loggerName.length() || name.charAt(loggerName.length()) == '.');
+    }
+
+    @Override
+    public void start() {
+        if (loggerName == null) {
+            addError("No loggerName set for rate limiting filter " + getName());
+            return;
+        }
+        super.start();
+    }
+
+    public long getSampledOut() {
+        return sampledOut.sum();
+    }
+
+    public String getLoggerName() { return loggerName; }
+    public void setLoggerName(String loggerName) { this.loggerName = loggerName; }
+
+    public int getPermitsPerSecond() { return permitsPerSecond; }
+    public void setPermitsPerSecond(int permitsPerSecond) { this.permitsPerSecond = permitsPerSecond; }
+}
@@ -0,0 +1,10 @@
+package com.example.customer.model;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Outcome of a bulk update: how many corrections were applied and the ids that matched no customer
+ */
+public record BulkUpdateResult(int requested, int updated, List<UUID> notFound) {
+}
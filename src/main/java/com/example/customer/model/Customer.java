@@ -1,22 +1,30 @@
 package com.example.customer.model;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.UUID;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Customer.CACHE_REGION)
 public class Customer {
+    public static final String CACHE_REGION = "customer";
+    public static final String QUERY_CACHE_REGION = "customer-queries";
+
     @Schema(accessMode = Schema.AccessMode.READ_ONLY)
     @Id
-    @GeneratedValue
+    @CustomerId
     private UUID id;
 
     @NotBlank
@@ -29,6 +37,10 @@ public class Customer {
     private BigDecimal annualSpend;
     private LocalDate lastPurchaseDate;
 
+    @Version
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
     @Transient
     @Schema(accessMode = Schema.AccessMode.READ_ONLY)
     private String tier;
@@ -48,6 +60,9 @@ public class Customer {
     public LocalDate getLastPurchaseDate() { return lastPurchaseDate; }
     public void setLastPurchaseDate(LocalDate lastPurchaseDate) { this.lastPurchaseDate = lastPurchaseDate; }
 
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
     public String getTier() {
         if (annualSpend == null) return "Silver";
         LocalDate now = LocalDate.now();
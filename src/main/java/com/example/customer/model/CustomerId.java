@@ -0,0 +1,21 @@
+package com.example.customer.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Generates a time-ordered {@link UuidV7} for a new customer unless one was already assigned,
+ * so ids can be chosen up front when they determine where the row is stored.
+ * Time-ordered ids keep inserts at the right-hand edge of the primary key index.
+ */
+@IdGeneratorType(CustomerIdGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface CustomerId {
+}
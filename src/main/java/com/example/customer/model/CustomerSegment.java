@@ -0,0 +1,11 @@
+package com.example.customer.model;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Result of a segment query: the number of matching customers and, unless only the count was asked for,
+ * one page of their ids
+ */
+public record CustomerSegment(long count, int page, int size, List<UUID> ids) {
+}
@@ -0,0 +1,25 @@
+package com.example.customer.model;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * A single purchase made by a customer. Purchases are aggregated in memory and
+ * applied to {@link Customer#getAnnualSpend()} and {@link Customer#getLastPurchaseDate()} in batches.
+ */
+public class PurchaseEvent {
+    @NotNull
+    @Positive
+    private BigDecimal amount;
+
+    private LocalDate purchaseDate;
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public LocalDate getPurchaseDate() { return purchaseDate; }
+    public void setPurchaseDate(LocalDate purchaseDate) { this.purchaseDate = purchaseDate; }
+}
@@ -0,0 +1,11 @@
+package com.example.customer.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Sum of the purchases buffered for one customer since the last flush.
+ */
+public record PurchaseTotal(UUID customerId, BigDecimal amount, LocalDate lastPurchaseDate) {
+}
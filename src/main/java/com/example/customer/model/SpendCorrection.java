@@ -0,0 +1,34 @@
+package com.example.customer.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * A correction to one customer's annual spend and/or last purchase date.
+ * Fields left null keep their current value.
+ * Validated by {@code CustomerController#bulkUpdateCustomers}, which reports the index of the offending item.
+ */
+public class SpendCorrection {
+    private UUID id;
+    private BigDecimal annualSpend;
+    private LocalDate lastPurchaseDate;
+
+    public SpendCorrection() {
+    }
+
+    public SpendCorrection(UUID id, BigDecimal annualSpend, LocalDate lastPurchaseDate) {
+        this.id = id;
+        this.annualSpend = annualSpend;
+        this.lastPurchaseDate = lastPurchaseDate;
+    }
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public BigDecimal getAnnualSpend() { return annualSpend; }
+    public void setAnnualSpend(BigDecimal annualSpend) { this.annualSpend = annualSpend; }
+
+    public LocalDate getLastPurchaseDate() { return lastPurchaseDate; }
+    public void setLastPurchaseDate(LocalDate lastPurchaseDate) { this.lastPurchaseDate = lastPurchaseDate; }
+}
@@ -0,0 +1,49 @@
+package com.example.customer.model;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUIDs (RFC 9562 version 7), generated in memory.
+ * <p>
+ * The top 48 bits are the Unix time in milliseconds, followed by the version and a 12-bit counter.
+ * The counter starts at a random value in the lower half of its range each millisecond and increments for
+ * every further id in that millisecond. If it overflows, the timestamp is advanced, so ids from this JVM
+ * are strictly increasing even when the clock steps back. The remaining 62 bits are random.
+ */
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int COUNTER_BITS = 12;
+
+    /** millisecond timestamp and counter of the last id, as (millis << 12) | counter */
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private UuidV7() {
+    }
+
+    public static UUID next() {
+        long previous;
+        long next;
+        do {
+            previous = LAST.get();
+            long millis = System.currentTimeMillis();
+            // seed the counter only when the millisecond moves on, otherwise count up from the last id
+            next = millis > previous >>> COUNTER_BITS
+                    ? millis << COUNTER_BITS | RANDOM.nextInt(1 << (COUNTER_BITS - 1))
+                    : previous + 1;
+        } while (!LAST.compareAndSet(previous, next));
+
+        long mostSigBits = (next >>> COUNTER_BITS) << 16 | 0x7000L | (next & 0xFFFL);
+        long leastSigBits = RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * @return the Unix time in milliseconds embedded in a version 7 UUID
+     */
+    public static long timestamp(UUID uuid) {
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.customer.repository;
+
+import com.example.customer.bulkhead.Bulkhead;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Routes connections to the pool of the bulkhead bound to the current thread,
+ * or to the shared pool for work outside any bulkhead, such as startup and scheduled jobs.
+ */
+public class BulkheadRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Bulkhead.Type> CURRENT_BULKHEAD = new ThreadLocal<>();
+
+    public static Bulkhead.Type currentBulkhead() {
+        return CURRENT_BULKHEAD.get();
+    }
+
+    public static void bind(Bulkhead.Type bulkhead) {
+        if (bulkhead == null) {
+            CURRENT_BULKHEAD.remove();
+        } else {
+            CURRENT_BULKHEAD.set(bulkhead);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return CURRENT_BULKHEAD.get();
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.customer.repository;
+
+import com.example.customer.model.Customer;
+import com.example.customer.model.PurchaseTotal;
+import com.example.customer.model.SpendCorrection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * JDBC access for set-based updates that would otherwise be a read-modify-write per row through JPA.
+ */
+@Repository
+public class CustomerBatchRepository {
+
+    private static final String ADD_PURCHASE_SQL =
+            "UPDATE customer SET annual_spend = COALESCE(annual_spend, 0) + ?, " +
+            "last_purchase_date = CASE WHEN last_purchase_date IS NULL OR last_purchase_date < ? " +
+            "THEN ? ELSE last_purchase_date END, " +
+            "version = COALESCE(version, 0) + 1 " +
+            "WHERE id = ?";
+
+    private static final String CORRECT_SPEND_SQL =
+            "UPDATE customer SET annual_spend = COALESCE(?, annual_spend), " +
+            "last_purchase_date = COALESCE(?, last_purchase_date), " +
+            "version = COALESCE(version, 0) + 1 " +
+            "WHERE id = ?";
+
+    private static final String UPSERT_SQL =
+            "MERGE INTO customer (id, name, email, annual_spend, last_purchase_date, version) KEY (id) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String DELETE_SQL = "DELETE FROM customer WHERE id = ?";
+
+    private static final String SELECT_ALL_SQL =
+            "SELECT id, name, email, annual_spend, last_purchase_date, version FROM customer";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds each total to the customer's annual spend and moves the last purchase date forward
+     * @param totals purchase totals, at most one per customer
+     * @return update count per total, 0 when the customer does not exist
+     */
+    @Transactional
+    public int[] addPurchases(List<PurchaseTotal> totals) {
+        return jdbcTemplate.batchUpdate(ADD_PURCHASE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PurchaseTotal total = totals.get(i);
+                Date purchaseDate = Date.valueOf(total.lastPurchaseDate());
+                ps.setBigDecimal(1, total.amount());
+                ps.setDate(2, purchaseDate);
+                ps.setDate(3, purchaseDate);
+                ps.setObject(4, total.customerId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return totals.size();
+            }
+        });
+    }
+
+    /**
+     * Overwrites annual spend and last purchase date, keeping the current value where a correction leaves a field null
+     * @param corrections corrections, applied in order
+     * @return update count per correction, 0 when the customer does not exist
+     */
+    @Transactional
+    public int[] correctSpend(List<SpendCorrection> corrections) {
+        return jdbcTemplate.batchUpdate(CORRECT_SPEND_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                SpendCorrection correction = corrections.get(i);
+                ps.setBigDecimal(1, correction.getAnnualSpend());
+                if (correction.getLastPurchaseDate() == null) {
+                    ps.setNull(2, Types.DATE);
+                } else {
+                    ps.setDate(2, Date.valueOf(correction.getLastPurchaseDate()));
+                }
+                ps.setObject(3, correction.getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return corrections.size();
+            }
+        });
+    }
+
+    /**
+     * Insert or replace customers by id
+     */
+    @Transactional
+    public void upsert(List<Customer> customers) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Customer customer = customers.get(i);
+                ps.setObject(1, customer.getId());
+                ps.setString(2, customer.getName());
+                ps.setString(3, customer.getEmail());
+                ps.setBigDecimal(4, customer.getAnnualSpend());
+                if (customer.getLastPurchaseDate() == null) {
+                    ps.setNull(5, Types.DATE);
+                } else {
+                    ps.setDate(5, Date.valueOf(customer.getLastPurchaseDate()));
+                }
+                ps.setLong(6, customer.getVersion() == null ? 0 : customer.getVersion());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return customers.size();
+            }
+        });
+    }
+
+    @Transactional
+    public void delete(List<UUID> ids) {
+        jdbcTemplate.batchUpdate(DELETE_SQL, ids, ids.size(), (ps, id) -> ps.setObject(1, id));
+    }
+
+    @Transactional
+    public void deleteAll() {
+        jdbcTemplate.update("DELETE FROM customer");
+    }
+
+    /**
+     * Stream every customer row without loading the table into memory
+     */
+    @Transactional(readOnly = true)
+    public void forEach(Consumer<Customer> consumer) {
+        jdbcTemplate.query(SELECT_ALL_SQL, rs -> {
+            consumer.accept(mapCustomer(rs));
+        });
+    }
+
+    /**
+     * Load customers by id straight from the table, bypassing the second-level cache,
+     * so rows changed earlier in the same transaction are read as changed
+     */
+    @Transactional(readOnly = true)
+    public List<Customer> findAll(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String sql = SELECT_ALL_SQL + " WHERE id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> mapCustomer(rs), ids.toArray());
+    }
+
+    private static Customer mapCustomer(ResultSet rs) throws SQLException {
+        Customer customer = new Customer();
+        customer.setId(rs.getObject(1, UUID.class));
+        customer.setName(rs.getString(2));
+        customer.setEmail(rs.getString(3));
+        customer.setAnnualSpend(rs.getBigDecimal(4));
+        Date lastPurchaseDate = rs.getDate(5);
+        customer.setLastPurchaseDate(lastPurchaseDate == null ? null : lastPurchaseDate.toLocalDate());
+        customer.setVersion(rs.getLong(6));
+        return customer;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.customer.repository;
+
+import com.example.customer.model.Customer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Evicts customers from the Hibernate second-level cache after changes made outside Hibernate,
+ * such as the JDBC batch updates of {@link CustomerBatchRepository}. Call it after the change commits.
+ */
+@Component
+public class CustomerCache {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Evict changed customers whose name and email, and so the cached query results, are unchanged
+     */
+    public void evict(Collection<UUID> ids) {
+        org.hibernate.Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        for (UUID id : ids) {
+            cache.evictEntityData(Customer.class, id);
+        }
+    }
+
+    /**
+     * Evict changed customers and every cached query result
+     */
+    public void evictWithQueries(Collection<UUID> ids) {
+        evict(ids);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    public void evictAll() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.customer.repository;
+
+import com.example.customer.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * JDBC access to the customer outbox table.
+ * Inserts join the caller's transaction, so outbox rows commit or roll back together with the change they describe.
+ */
+@Repository
+public class CustomerOutboxRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO customer_outbox (customer_id, event_type, customer_version, payload, created_at, attempts, next_attempt_at) " +
+            "VALUES (?, ?, ?, ?, ?, 0, ?)";
+
+    // an event is held back while an earlier event of the same customer waits for a retry
+    private static final String SELECT_DUE_SQL =
+            "SELECT o.id, o.customer_id, o.event_type, o.customer_version, o.payload, o.created_at, o.attempts " +
+            "FROM customer_outbox o WHERE o.next_attempt_at <= ? AND NOT EXISTS (" +
+            "SELECT 1 FROM customer_outbox e WHERE e.customer_id = o.customer_id AND e.id < o.id AND e.next_attempt_at > ?) " +
+            "ORDER BY o.id LIMIT ?";
+
+    private static final String DELETE_SQL = "DELETE FROM customer_outbox WHERE id = ?";
+
+    private static final String RETRY_SQL =
+            "UPDATE customer_outbox SET attempts = attempts + 1, next_attempt_at = ? WHERE id = ?";
+
+    private static final String BACKLOG_SQL = "SELECT COUNT(*), MIN(created_at) FROM customer_outbox";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Pending events and the creation time of the oldest, null when there are none
+     */
+    public record Backlog(long pending, Instant oldest) {
+    }
+
+    public void insert(List<OutboxEvent> events) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                OutboxEvent event = events.get(i);
+                ps.setObject(1, event.getCustomerId());
+                ps.setString(2, event.getType().name());
+                if (event.getCustomerVersion() == null) {
+                    ps.setNull(3, Types.BIGINT);
+                } else {
+                    ps.setLong(3, event.getCustomerVersion());
+                }
+                ps.setString(4, event.getPayload());
+                ps.setTimestamp(5, Timestamp.from(event.getCreatedAt()));
+                ps.setTimestamp(6, Timestamp.from(event.getCreatedAt()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return events.size();
+            }
+        });
+    }
+
+    /**
+     * Oldest events that are due, in publication order
+     */
+    public List<OutboxEvent> findDue(Instant now, int limit) {
+        Timestamp at = Timestamp.from(now);
+        return jdbcTemplate.query(SELECT_DUE_SQL, (rs, rowNum) -> {
+            OutboxEvent event = new OutboxEvent();
+            event.setId(rs.getLong(1));
+            event.setCustomerId(rs.getObject(2, UUID.class));
+            event.setType(OutboxEvent.Type.valueOf(rs.getString(3)));
+            long version = rs.getLong(4);
+            event.setCustomerVersion(rs.wasNull() ? null : version);
+            event.setPayload(rs.getString(5));
+            event.setCreatedAt(rs.getTimestamp(6).toInstant());
+            event.setAttempts(rs.getInt(7));
+            return event;
+        }, at, at, limit);
+    }
+
+    public void delete(List<Long> ids) {
+        jdbcTemplate.batchUpdate(DELETE_SQL, ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+    }
+
+    /**
+     * Count a failed attempt and hold the event back until the given time
+     */
+    public void retryAt(long id, Instant nextAttemptAt) {
+        jdbcTemplate.update(RETRY_SQL, Timestamp.from(nextAttemptAt), id);
+    }
+
+    public Backlog backlog() {
+        return jdbcTemplate.queryForObject(BACKLOG_SQL, (rs, rowNum) -> {
+            Timestamp oldest = rs.getTimestamp(2);
+            return new Backlog(rs.getLong(1), oldest == null ? null : oldest.toInstant());
+        });
+    }
+}
@@ -0,0 +1,420 @@
+package com.example.customer.repository;
+
+import com.example.customer.model.Customer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * On-disk copy of the customer table: a compact binary snapshot plus an append-only journal of
+ * changes made since that snapshot. Both files are read through memory mapping, in windows of at most 2 GiB,
+ * the most a single mapping can cover.
+ * <p>
+ * Snapshot layout: magic, format version, then one record per customer prefixed with a marker byte,
+ * a terminating marker, the record count and a CRC32 of everything before it.
+ * Journal entries are framed as length, payload, CRC32 so a torn write at the tail is detected and skipped.
+ * A deletion records the customer's last version, so entries can be ordered by version rather than by position.
+ */
+@Repository
+@ConditionalOnProperty(name = "customer.snapshot.enabled", havingValue = "true")
+public class CustomerSnapshotStore {
+
+    private static final int SNAPSHOT_MAGIC = 0x43534E50; // "CSNP"
+    private static final int FORMAT_VERSION = 1;
+    private static final byte RECORD = 1;
+    private static final byte END = 0;
+    private static final byte SAVED = 1;
+    private static final byte DELETED = 2;
+
+    private static final String SNAPSHOT_FILE = "customers.snap";
+    private static final String JOURNAL_FILE = "customers.journal";
+    private static final String ROTATED_JOURNAL_FILE = "customers.journal.old";
+
+    @Value("${customer.snapshot.directory:data/snapshot}")
+    private String directory;
+
+    @Value("${customer.snapshot.journal-fsync:false}")
+    private boolean fsyncJournal;
+
+    // bytes mapped at a time, smaller in tests to cross window boundaries
+    private int mappingWindow = Integer.MAX_VALUE;
+
+    private Path snapshotFile;
+    private Path journalFile;
+    private Path rotatedJournalFile;
+    private FileChannel journal;
+
+    /**
+     * Receives journal entries in the order they were appended, which need not be the order they were committed in
+     */
+    public interface JournalVisitor {
+        void saved(Customer customer);
+
+        void deleted(UUID id, long version);
+    }
+
+    /**
+     * Writes the records of a snapshot
+     */
+    public interface SnapshotSource {
+        void writeTo(Consumer<Customer> sink);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path root = Paths.get(directory);
+        Files.createDirectories(root);
+        snapshotFile = root.resolve(SNAPSHOT_FILE);
+        journalFile = root.resolve(JOURNAL_FILE);
+        rotatedJournalFile = root.resolve(ROTATED_JOURNAL_FILE);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (journal != null) {
+            journal.force(true);
+            journal.close();
+            journal = null;
+        }
+    }
+
+    public Path getDirectory() {
+        return snapshotFile.getParent();
+    }
+
+    /**
+     * Write a new snapshot next to the current one, then atomically replace it
+     * @return number of customers written
+     */
+    public long writeSnapshot(SnapshotSource source) throws IOException {
+        Path temp = snapshotFile.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        long[] count = new long[1];
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(file, crc), 1 << 16));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            source.writeTo(customer -> {
+                try {
+                    out.writeByte(RECORD);
+                    writeCustomer(out, customer);
+                    count[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.writeByte(END);
+            out.flush();
+            DataOutputStream trailer = new DataOutputStream(file);
+            trailer.writeLong(count[0]);
+            trailer.writeLong(crc.getValue());
+            file.getFD().sync();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        Files.move(temp, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return count[0];
+    }
+
+    public boolean hasSnapshot() {
+        return Files.exists(snapshotFile);
+    }
+
+    /**
+     * Read every customer in the current snapshot
+     * @return number of customers read
+     */
+    public long readSnapshot(Consumer<Customer> sink) throws IOException {
+        if (!hasSnapshot()) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            MappedFile in = new MappedFile(channel, mappingWindow, new CRC32());
+            if (!in.ensure(8) || in.buffer().getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a customer snapshot: " + snapshotFile);
+            }
+            int version = in.buffer().getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported customer snapshot version " + version);
+            }
+            long count = 0;
+            while (in.read(ByteBuffer::get) == RECORD) {
+                sink.accept(in.read(CustomerSnapshotStore::readCustomer));
+                count++;
+            }
+            long crc = in.checksum();
+            if (!in.ensure(16)) {
+                throw new IOException("Customer snapshot is truncated: " + snapshotFile);
+            }
+            long expectedCount = in.buffer().getLong();
+            long expectedCrc = in.buffer().getLong();
+            if (count != expectedCount || crc != expectedCrc) {
+                throw new IOException("Customer snapshot is corrupt: " + snapshotFile);
+            }
+            return count;
+        }
+    }
+
+    public synchronized void appendSaved(Customer customer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(SAVED);
+        writeCustomer(out, customer);
+        append(bytes.toByteArray());
+    }
+
+    /**
+     * @param version the version the customer had when it was deleted
+     */
+    public synchronized void appendDeleted(UUID id, long version) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(25);
+        payload.put(DELETED).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).putLong(version);
+        append(payload.array());
+    }
+
+    /**
+     * Start a new journal. Entries made before the rotation stay in the rotated journal until
+     * {@link #discardRotatedJournal()} is called once a snapshot covering them is on disk.
+     */
+    public synchronized void rotateJournal() throws IOException {
+        close();
+        if (!Files.exists(journalFile)) {
+            return;
+        }
+        if (Files.exists(rotatedJournalFile)) {
+            // the previous snapshot never completed, so keep its entries ahead of the newer ones
+            try (FileChannel rotated = FileChannel.open(rotatedJournalFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                 FileChannel current = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+                current.transferTo(0, current.size(), rotated);
+                rotated.force(true);
+            }
+            Files.delete(journalFile);
+        } else {
+            Files.move(journalFile, rotatedJournalFile, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    public synchronized void discardRotatedJournal() throws IOException {
+        Files.deleteIfExists(rotatedJournalFile);
+    }
+
+    /**
+     * Replay the rotated journal, if any, followed by the current journal
+     * @return number of entries replayed
+     */
+    public long replayJournal(JournalVisitor visitor) throws IOException {
+        return replay(rotatedJournalFile, visitor) + replay(journalFile, visitor);
+    }
+
+    private void append(byte[] payload) throws IOException {
+        if (journal == null) {
+            journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer entry = ByteBuffer.allocate(payload.length + 8);
+        entry.putInt(payload.length).put(payload).putInt((int) crc.getValue()).flip();
+        while (entry.hasRemaining()) {
+            journal.write(entry);
+        }
+        if (fsyncJournal) {
+            journal.force(false);
+        }
+    }
+
+    private long replay(Path file, JournalVisitor visitor) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        long entries = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedFile in = new MappedFile(channel, mappingWindow, null);
+            while (in.ensure(4)) {
+                int length = in.buffer().getInt();
+                if (length <= 0 || !in.ensure(length + 4L)) {
+                    break;
+                }
+                ByteBuffer buffer = in.buffer();
+                ByteBuffer payload = buffer.slice(buffer.position(), length);
+                buffer.position(buffer.position() + length);
+                CRC32 crc = new CRC32();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != buffer.getInt()) {
+                    break;
+                }
+                byte type = payload.get();
+                if (type == SAVED) {
+                    visitor.saved(readCustomer(payload));
+                } else if (type == DELETED) {
+                    visitor.deleted(new UUID(payload.getLong(), payload.getLong()), payload.getLong());
+                }
+                entries++;
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Reads a file through read-only mappings of at most {@code window} bytes, mapping the next window
+     * at the current position when a read runs past the end of the current one
+     */
+    private static final class MappedFile {
+        private final FileChannel channel;
+        private final long size;
+        private final int window;
+        private final CRC32 crc;
+        private long offset;
+        private long checksummed;
+        private MappedByteBuffer buffer;
+
+        MappedFile(FileChannel channel, int window, CRC32 crc) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            this.window = window;
+            this.crc = crc;
+            mapAt(0);
+        }
+
+        ByteBuffer buffer() {
+            return buffer;
+        }
+
+        /**
+         * Make the next {@code length} bytes readable from {@link #buffer()}
+         * @return false if the file ends, or the window is too small, before that many bytes
+         */
+        boolean ensure(long length) throws IOException {
+            if (buffer.remaining() >= length) {
+                return true;
+            }
+            long position = offset + buffer.position();
+            if (size - position < length || length > window) {
+                return false;
+            }
+            mapAt(position);
+            return true;
+        }
+
+        /**
+         * Read one value, starting again in a fresh window if it runs past the end of the current one
+         */
+        <T> T read(Function<ByteBuffer, T> reader) throws IOException {
+            int start = buffer.position();
+            try {
+                return reader.apply(buffer);
+            } catch (BufferUnderflowException e) {
+                long position = offset + start;
+                if (Math.min(size - position, window) <= buffer.limit() - start) {
+                    throw e;
+                }
+                mapAt(position);
+                return reader.apply(buffer);
+            }
+        }
+
+        /**
+         * @return CRC32 of everything read so far
+         */
+        long checksum() {
+            updateChecksum(offset + buffer.position());
+            return crc.getValue();
+        }
+
+        private void mapAt(long position) throws IOException {
+            if (buffer != null) {
+                updateChecksum(position);
+            }
+            offset = position;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, window));
+        }
+
+        private void updateChecksum(long upTo) {
+            if (crc != null && upTo > checksummed) {
+                crc.update(buffer.duplicate().position((int) (checksummed - offset)).limit((int) (upTo - offset)));
+                checksummed = upTo;
+            }
+        }
+    }
+
+    private static void writeCustomer(DataOutputStream out, Customer customer) throws IOException {
+        out.writeLong(customer.getId().getMostSignificantBits());
+        out.writeLong(customer.getId().getLeastSignificantBits());
+        writeString(out, customer.getName());
+        writeString(out, customer.getEmail());
+        BigDecimal annualSpend = customer.getAnnualSpend();
+        if (annualSpend == null) {
+            out.writeShort(-1);
+        } else {
+            byte[] unscaled = annualSpend.unscaledValue().toByteArray();
+            out.writeShort(unscaled.length);
+            out.write(unscaled);
+            out.writeInt(annualSpend.scale());
+        }
+        out.writeLong(customer.getLastPurchaseDate() == null ? Long.MIN_VALUE : customer.getLastPurchaseDate().toEpochDay());
+        out.writeLong(customer.getVersion() == null ? 0 : customer.getVersion());
+    }
+
+    private static Customer readCustomer(ByteBuffer in) {
+        Customer customer = new Customer();
+        customer.setId(new UUID(in.getLong(), in.getLong()));
+        customer.setName(readString(in));
+        customer.setEmail(readString(in));
+        short length = in.getShort();
+        if (length >= 0) {
+            byte[] unscaled = new byte[length];
+            in.get(unscaled);
+            customer.setAnnualSpend(new BigDecimal(new BigInteger(unscaled), in.getInt()));
+        }
+        long epochDay = in.getLong();
+        customer.setLastPurchaseDate(epochDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(epochDay));
+        customer.setVersion(in.getLong());
+        return customer;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.customer.repository;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Routes connections to the partition bound to the current thread, or to partition 0 when none is bound.
+ */
+public class PartitionRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Integer> CURRENT_PARTITION = new ThreadLocal<>();
+
+    public static Integer currentPartition() {
+        return CURRENT_PARTITION.get();
+    }
+
+    public static void bind(Integer partition) {
+        if (partition == null) {
+            CURRENT_PARTITION.remove();
+        } else {
+            CURRENT_PARTITION.set(partition);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return CURRENT_PARTITION.get();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.customer.service;
+
+import com.example.customer.model.Customer;
+
+/**
+ * Callback for components that keep derived state in step with the customer table.
+ * Called after the change has been committed.
+ */
+public interface CustomerChangeListener {
+
+    default void onSaved(Customer customer) {
+    }
+
+    /**
+     * @param customer the customer as it was when deleted
+     */
+    default void onDeleted(Customer customer) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.customer.service;
+
+import com.example.customer.model.Customer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Fans customer changes out to every {@link CustomerChangeListener} and records them in the {@link CustomerOutbox}.
+ * Inside a transaction the listeners run after commit, so they never see changes that are rolled back,
+ * while the outbox row is written as part of the transaction.
+ */
+@Component
+public class CustomerChangeNotifier {
+    private static final Logger logger = LoggerFactory.getLogger(CustomerChangeNotifier.class);
+
+    @Autowired(required = false)
+    private List<CustomerChangeListener> listeners = List.of();
+
+    @Autowired(required = false)
+    private CustomerOutbox outbox;
+
+    /**
+     * @return whether anything consumes changes, so callers know whether the changed customers need loading
+     */
+    public boolean hasListeners() {
+        return outbox != null || !listeners.isEmpty();
+    }
+
+    public void saved(Customer customer) {
+        if (outbox != null) {
+            outbox.saved(customer);
+        }
+        publish(listener -> listener.onSaved(customer));
+    }
+
+    /**
+     * @param customer the customer as it was when deleted
+     */
+    public void deleted(Customer customer) {
+        if (outbox != null) {
+            outbox.deleted(customer.getId());
+        }
+        publish(listener -> listener.onDeleted(customer));
+    }
+
+    private void publish(Consumer<CustomerChangeListener> event) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    notifyListeners(event);
+                }
+            });
+        } else {
+            notifyListeners(event);
+        }
+    }
+
+    private void notifyListeners(Consumer<CustomerChangeListener> event) {
+        for (CustomerChangeListener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                logger.error("Customer change listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.customer.service;
+
+import com.example.customer.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Delivers customer change events to other services. {@link OutboxRelay} hands it batches in publication order.
+ * Delivery is at least once: a batch that throws is retried, so consumers should tolerate repeats,
+ * for example by ignoring events whose customer version they have already seen.
+ */
+public interface CustomerEventPublisher {
+
+    void publish(List<OutboxEvent> events);
+}
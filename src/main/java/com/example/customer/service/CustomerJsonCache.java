@@ -0,0 +1,102 @@
+package com.example.customer.service;
+
+import com.example.customer.model.Customer;
+import com.example.customer.tracing.Phase;
+import com.example.customer.tracing.RequestTrace;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Serialized JSON of recently read customers, so hot customers are not re-serialized on every GET.
+ * An entry is only reused for the same customer version on the same day, because the tier in the JSON
+ * depends on today's date. It is bounded by the total size of the cached JSON rather than by entry count,
+ * and dropped when the customer is updated or deleted.
+ */
+@Component
+public class CustomerJsonCache implements CustomerChangeListener, MeterBinder {
+
+    /** rough per-entry overhead of key, value holder and cache node, counted towards the byte bound */
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private final ObjectMapper objectMapper;
+    private final Cache<UUID, Rendered> cache;
+
+    private record Rendered(Long version, LocalDate renderedOn, byte[] json) {
+    }
+
+    public CustomerJsonCache(ObjectMapper objectMapper, @Value("${customer.json-cache.max-bytes:33554432}") long maxBytes) {
+        this.objectMapper = objectMapper;
+        this.cache = maxBytes <= 0 ? null : Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((UUID id, Rendered rendered) -> rendered.json().length + ENTRY_OVERHEAD_BYTES)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return the customer as JSON, from the cache when this version was already serialized today
+     */
+    public byte[] toJson(Customer customer) {
+        LocalDate today = LocalDate.now();
+        if (cache != null) {
+            Rendered cached = cache.getIfPresent(customer.getId());
+            if (cached != null && Objects.equals(cached.version(), customer.getVersion()) && cached.renderedOn().equals(today)) {
+                return cached.json();
+            }
+        }
+        byte[] json = serialize(customer);
+        if (cache != null && customer.getVersion() != null) {
+            cache.put(customer.getId(), new Rendered(customer.getVersion(), today, json));
+        }
+        return json;
+    }
+
+    @Override
+    public void onSaved(Customer customer) {
+        if (cache != null) {
+            cache.invalidate(customer.getId());
+        }
+    }
+
+    @Override
+    public void onDeleted(Customer customer) {
+        if (cache != null) {
+            cache.invalidate(customer.getId());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache == null) {
+            return;
+        }
+        CaffeineCacheMetrics.monitor(registry, cache, "customer-json");
+        Gauge.builder("customer.json.cache.size", cache, c -> c.policy().eviction().orElseThrow().weightedSize().orElse(0))
+                .description("Bytes of serialized customer JSON held in the cache")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private byte[] serialize(Customer customer) {
+        RequestTrace trace = RequestTrace.enter(Phase.SERIALIZATION);
+        try {
+            return objectMapper.writeValueAsBytes(customer);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize customer with ID: " + customer.getId(), e);
+        } finally {
+            RequestTrace.exit(trace, Phase.SERIALIZATION);
+        }
+    }
+}
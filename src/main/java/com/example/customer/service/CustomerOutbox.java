@@ -0,0 +1,117 @@
+package com.example.customer.service;
+
+import com.example.customer.model.Customer;
+import com.example.customer.model.OutboxEvent;
+import com.example.customer.repository.CustomerOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes customer changes to the outbox table in the transaction that makes the change.
+ * Changes are collected per transaction and inserted in one batch just before it commits, after the
+ * persistence context is flushed, so each event carries the customer exactly as committed.
+ * {@link OutboxRelay} publishes the rows afterwards.
+ */
+@Component
+@ConditionalOnProperty(name = "customer.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class CustomerOutbox {
+
+    @Autowired
+    private CustomerOutboxRepository outboxRepository;
+
+    @Autowired
+    private CustomerPartitions partitions;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public void saved(Customer customer) {
+        pending().add(new Change(customer.getId(), customer));
+    }
+
+    public void deleted(UUID id) {
+        pending().add(new Change(id, null));
+    }
+
+    private record Change(UUID customerId, Customer customer) {
+    }
+
+    private List<Change> pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Customer changes must be recorded inside a transaction");
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending.changes;
+    }
+
+    private OutboxEvent toEvent(Change change, Instant now) {
+        OutboxEvent event = new OutboxEvent();
+        event.setCustomerId(change.customerId());
+        event.setCreatedAt(now);
+        Customer customer = change.customer();
+        if (customer == null) {
+            event.setType(OutboxEvent.Type.DELETED);
+            return event;
+        }
+        Long version = customer.getVersion();
+        event.setType(version == null || version == 0 ? OutboxEvent.Type.CREATED : OutboxEvent.Type.UPDATED);
+        event.setCustomerVersion(version);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(customer));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize customer with ID: " + customer.getId(), e);
+        }
+        return event;
+    }
+
+    private class PendingChanges implements TransactionSynchronization {
+        private final List<Change> changes = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (changes.isEmpty()) {
+                return;
+            }
+            // a transaction only ever touches one partition, the one its customers live in
+            partitions.onPartitionOf(changes.get(0).customerId(), () -> {
+                EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory);
+                if (holder != null) {
+                    // assigns the final version of updated entities
+                    holder.getEntityManager().flush();
+                }
+                Instant now = Instant.now();
+                List<OutboxEvent> events = new ArrayList<>(changes.size());
+                for (Change change : changes) {
+                    events.add(toEvent(change, now));
+                }
+                outboxRepository.insert(events);
+                return null;
+            });
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CustomerOutbox.this);
+        }
+    }
+}
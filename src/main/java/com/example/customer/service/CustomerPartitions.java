@@ -0,0 +1,196 @@
+package com.example.customer.service;
+
+import com.example.customer.bulkhead.Bulkhead;
+import com.example.customer.config.PartitionProperties;
+import com.example.customer.model.Customer;
+import com.example.customer.repository.BulkheadRoutingDataSource;
+import com.example.customer.repository.PartitionRoutingDataSource;
+import com.example.customer.tracing.RequestTrace;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Decides which partition a customer lives in and runs repository work against it.
+ * Customers are placed by a hash of their id; lookups by email go through an in-memory
+ * email to partition index and fall back to querying every partition.
+ * With partitioning disabled every method simply runs the work on the single datasource.
+ */
+@Component
+public class CustomerPartitions {
+
+    @Autowired(required = false)
+    private PartitionProperties properties;
+
+    private int count = 1;
+    private ExecutorService fanOutExecutor;
+    private final Map<String, Integer> emailIndex = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (properties != null && properties.isEnabled()) {
+            count = properties.getDatasources().size();
+            AtomicInteger threads = new AtomicInteger();
+            fanOutExecutor = Executors.newFixedThreadPool(Math.max(2, count * 2), runnable -> {
+                Thread thread = new Thread(runnable, "partition-fan-out-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdown();
+        }
+    }
+
+    public boolean isEnabled() {
+        return fanOutExecutor != null;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int partitionOf(UUID id) {
+        return Math.floorMod(id.hashCode(), count);
+    }
+
+    /**
+     * Run work with connections routed to the given partition
+     */
+    public <T> T onPartition(int partition, Supplier<T> work) {
+        if (!isEnabled()) {
+            return work.get();
+        }
+        Integer previous = PartitionRoutingDataSource.currentPartition();
+        PartitionRoutingDataSource.bind(partition);
+        try {
+            return work.get();
+        } finally {
+            PartitionRoutingDataSource.bind(previous);
+        }
+    }
+
+    /**
+     * Run work against the partition that owns the customer id
+     */
+    public <T> T onPartitionOf(UUID id, Supplier<T> work) {
+        if (!isEnabled()) {
+            return work.get();
+        }
+        return onPartition(partitionOf(id), work);
+    }
+
+    /**
+     * Run work against every partition in parallel and concatenate the results in partition order
+     */
+    public <T> List<T> fanOut(Supplier<List<T>> work) {
+        if (!isEnabled()) {
+            return work.get();
+        }
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(count);
+        // keep using the caller's bulkhead connection pool
+        Bulkhead.Type bulkhead = BulkheadRoutingDataSource.currentBulkhead();
+        // each worker times its own part of the request, added to the caller's trace once all are done
+        RequestTrace trace = RequestTrace.current();
+        List<RequestTrace> forks = new ArrayList<>(count);
+        for (int partition = 0; partition < count; partition++) {
+            int target = partition;
+            RequestTrace fork = trace == null ? null : trace.fork();
+            if (fork != null) {
+                forks.add(fork);
+            }
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                RequestTrace.bind(fork);
+                BulkheadRoutingDataSource.bind(bulkhead);
+                try {
+                    return onPartition(target, work);
+                } finally {
+                    BulkheadRoutingDataSource.bind(null);
+                    RequestTrace.bind(null);
+                }
+            }, fanOutExecutor));
+        }
+        List<T> merged = new ArrayList<>();
+        try {
+            for (CompletableFuture<List<T>> future : futures) {
+                merged.addAll(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        if (trace != null) {
+            trace.join(forks);
+        }
+        return merged;
+    }
+
+    /**
+     * Group items by the partition that owns the customer id of each item
+     */
+    public <T> Map<Integer, List<T>> groupByPartition(Collection<T> items, Function<T, UUID> customerId) {
+        Map<Integer, List<T>> groups = new LinkedHashMap<>();
+        for (T item : items) {
+            int partition = isEnabled() ? partitionOf(customerId.apply(item)) : 0;
+            groups.computeIfAbsent(partition, p -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    /**
+     * Find a customer by normalized email, trying the indexed partition before querying all of them
+     */
+    public Optional<Customer> findByEmail(String email, Supplier<Optional<Customer>> query) {
+        if (!isEnabled()) {
+            return query.get();
+        }
+        Integer indexed = emailIndex.get(email);
+        if (indexed != null) {
+            Optional<Customer> customer = onPartition(indexed, query);
+            if (customer.isPresent()) {
+                return customer;
+            }
+            emailIndex.remove(email, indexed);
+        }
+        Optional<Customer> customer = fanOut(() -> query.get().map(List::of).orElseGet(List::of))
+                .stream()
+                .findFirst();
+        customer.ifPresent(this::remember);
+        return customer;
+    }
+
+    public void remember(Customer customer) {
+        if (isEnabled() && customer.getEmail() != null) {
+            emailIndex.put(customer.getEmail(), partitionOf(customer.getId()));
+        }
+    }
+
+    public void forget(String email) {
+        if (isEnabled() && email != null) {
+            emailIndex.remove(email);
+        }
+    }
+}
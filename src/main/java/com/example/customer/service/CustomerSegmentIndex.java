@@ -0,0 +1,423 @@
+package com.example.customer.service;
+
+import com.example.customer.model.Customer;
+import com.example.customer.repository.CustomerBatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Columnar in-memory copy of the fields customer segments filter on.
+ * <p>
+ * Each customer occupies one slot across parallel primitive arrays: id, annual spend in cents, last purchase
+ * as epoch day and tier code. Slots are found through an open-addressing table of slot numbers keyed by id,
+ * and freed slots are reused. Segment queries scan the arrays in parallel chunks with branch-free predicates.
+ * The index is loaded on startup, after any snapshot restore, and kept current through change events.
+ */
+@Component
+@Order(2)
+public class CustomerSegmentIndex implements CustomerChangeListener, ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSegmentIndex.class);
+
+    public static final byte FREE = 0;
+    public static final byte SILVER = 1;
+    public static final byte GOLD = 2;
+    public static final byte PLATINUM = 3;
+
+    private static final long NULL_SPEND = Long.MIN_VALUE;
+    private static final int NULL_DAY = Integer.MIN_VALUE;
+    private static final int CHUNK = 1 << 16;
+
+    @Autowired
+    private CustomerBatchRepository batchRepository;
+
+    @Autowired
+    private CustomerPartitions partitions;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] idHigh = new long[1024];
+    private long[] idLow = new long[1024];
+    private long[] spendCents = new long[1024];
+    private int[] lastPurchaseDay = new int[1024];
+    private byte[] tier = new byte[1024];
+    /** slots in use or freed; slots at or above this have never been used */
+    private int highWater;
+    private int[] freeSlots = new int[64];
+    private int freeCount;
+    /** open-addressing table of slot + 1, 0 meaning empty */
+    private int[] table = new int[2048];
+    private int live;
+    /** the day tiers were computed for */
+    private volatile long tierDay = LocalDate.now().toEpochDay();
+
+    /** ids changed while the initial load runs; the loaded row for them is stale */
+    private volatile Set<UUID> changedDuringLoad = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Filter of a segment query; null bounds are open. Spend is in cents, dates in epoch days, both inclusive.
+     * @param tierMask bit per tier code that may match
+     */
+    public record SegmentQuery(Long minSpendCents, Long maxSpendCents, Integer fromDay, Integer toDay, int tierMask) {
+        public static final int ALL_TIERS = 1 << SILVER | 1 << GOLD | 1 << PLATINUM;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        for (int partition = 0; partition < partitions.count(); partition++) {
+            partitions.onPartition(partition, () -> {
+                batchRepository.forEach(customer -> apply(customer, true));
+                return null;
+            });
+        }
+        changedDuringLoad = null;
+        logger.info("Loaded {} customers into the segment index in {} ms", size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Override
+    public void onSaved(Customer customer) {
+        apply(customer, false);
+    }
+
+    @Override
+    public void onDeleted(Customer customer) {
+        lock.writeLock().lock();
+        try {
+            markChanged(customer.getId());
+            remove(customer.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(Customer customer) {
+        apply(customer, false);
+    }
+
+    /**
+     * @param loaded the row comes from the initial load, and is skipped if a change event already superseded it
+     */
+    private void apply(Customer customer, boolean loaded) {
+        long high = customer.getId().getMostSignificantBits();
+        long low = customer.getId().getLeastSignificantBits();
+        long cents = toCents(customer.getAnnualSpend());
+        int day = customer.getLastPurchaseDate() == null ? NULL_DAY : (int) customer.getLastPurchaseDate().toEpochDay();
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                Set<UUID> changed = changedDuringLoad;
+                if (changed != null && changed.contains(customer.getId())) {
+                    return;
+                }
+            } else {
+                markChanged(customer.getId());
+            }
+            int slot = find(high, low);
+            if (slot < 0) {
+                slot = allocate();
+                idHigh[slot] = high;
+                idLow[slot] = low;
+                insert(slot);
+                live++;
+            }
+            spendCents[slot] = cents;
+            lastPurchaseDay[slot] = day;
+            tier[slot] = tierOf(cents, day, tierDay);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            int position = position(id.getMostSignificantBits(), id.getLeastSignificantBits());
+            if (position < 0) {
+                return;
+            }
+            int slot = table[position] - 1;
+            deleteAt(position);
+            tier[slot] = FREE;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+            live--;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of customers in the segment
+     */
+    public long count(SegmentQuery query) {
+        refreshTiers();
+        Filter filter = new Filter(query);
+        lock.readLock().lock();
+        try {
+            int end = highWater;
+            return IntStream.range(0, chunks(end)).parallel()
+                    .mapToLong(chunk -> filter.count(chunk * CHUNK, Math.min(end, (chunk + 1) * CHUNK)))
+                    .sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return ids of the customers in the segment, skipping {@code offset} matches, in slot order
+     */
+    public List<UUID> ids(SegmentQuery query, long offset, int limit) {
+        refreshTiers();
+        Filter filter = new Filter(query);
+        lock.readLock().lock();
+        try {
+            int end = highWater;
+            int chunks = chunks(end);
+            // count matches per chunk in parallel, then collect only from the chunks covering the page
+            long[] counts = new long[chunks];
+            IntStream.range(0, chunks).parallel()
+                    .forEach(chunk -> counts[chunk] = filter.count(chunk * CHUNK, Math.min(end, (chunk + 1) * CHUNK)));
+            List<UUID> ids = new ArrayList<>(Math.min(limit, 1024));
+            long skip = offset;
+            for (int chunk = 0; chunk < chunks && ids.size() < limit; chunk++) {
+                if (skip >= counts[chunk]) {
+                    skip -= counts[chunk];
+                    continue;
+                }
+                for (int slot = chunk * CHUNK; slot < Math.min(end, (chunk + 1) * CHUNK) && ids.size() < limit; slot++) {
+                    if (filter.matches(slot) && skip-- <= 0) {
+                        ids.add(new UUID(idHigh[slot], idLow[slot]));
+                    }
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return NULL_SPEND;
+        }
+        BigDecimal cents = amount.movePointRight(2).setScale(0, RoundingMode.FLOOR);
+        // clamp so extreme values stay ordered and never collide with the null marker
+        if (cents.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0) {
+            return Long.MAX_VALUE;
+        }
+        if (cents.compareTo(BigDecimal.valueOf(NULL_SPEND + 1)) < 0) {
+            return NULL_SPEND + 1;
+        }
+        return cents.longValue();
+    }
+
+    /**
+     * Same rules as {@link Customer#getTier()}, evaluated on the columnar values for the given day
+     */
+    static byte tierOf(long cents, int day, long today) {
+        LocalDate now = LocalDate.ofEpochDay(today);
+        boolean hasPurchase = day != NULL_DAY;
+        if (cents >= 1_000_000 && hasPurchase && day > now.minusMonths(6).toEpochDay()) {
+            return PLATINUM;
+        }
+        if (cents >= 100_000 && cents < 1_000_000 && hasPurchase && day > now.minusMonths(12).toEpochDay()) {
+            return GOLD;
+        }
+        return SILVER;
+    }
+
+    private final class Filter {
+        private final long minSpend;
+        private final long spendRange;
+        private final long minDay;
+        private final long dayRange;
+        private final int tierMask;
+
+        Filter(SegmentQuery query) {
+            // a bound on a column excludes rows where that column is null
+            minSpend = query.minSpendCents() != null ? query.minSpendCents()
+                    : query.maxSpendCents() != null ? NULL_SPEND + 1 : NULL_SPEND;
+            long maxSpend = query.maxSpendCents() != null ? query.maxSpendCents() : Long.MAX_VALUE;
+            minDay = query.fromDay() != null ? query.fromDay()
+                    : query.toDay() != null ? NULL_DAY + 1L : NULL_DAY;
+            long maxDay = query.toDay() != null ? query.toDay() : Integer.MAX_VALUE;
+            // the differences may overflow as signed values but are exact as unsigned ones
+            spendRange = maxSpend >= minSpend ? maxSpend - minSpend : 0;
+            dayRange = maxDay >= minDay ? maxDay - minDay : 0;
+            // an empty range matches nothing, which is expressed through the tier mask
+            tierMask = maxSpend >= minSpend && maxDay >= minDay ? query.tierMask() & ~(1 << FREE) : 0;
+        }
+
+        boolean matches(int slot) {
+            return match(slot) != 0;
+        }
+
+        /**
+         * 1 if the slot matches, else 0. The range checks are unsigned comparisons computed as the borrow of
+         * {@code range - offset}, so counting has no data-dependent branch to mispredict.
+         */
+        long match(int slot) {
+            return withinRange(spendCents[slot] - minSpend, spendRange)
+                    & withinRange(lastPurchaseDay[slot] - minDay, dayRange)
+                    & (tierMask >>> tier[slot] & 1);
+        }
+
+        long count(int from, int to) {
+            long count = 0;
+            for (int slot = from; slot < to; slot++) {
+                count += match(slot);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * @return 1 if {@code offset <= range} as unsigned values, else 0
+     */
+    static long withinRange(long offset, long range) {
+        long borrow = (~range & offset | ~(range ^ offset) & (range - offset)) >>> 63;
+        return borrow ^ 1;
+    }
+
+    private void refreshTiers() {
+        long today = LocalDate.now().toEpochDay();
+        if (today == tierDay) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (today != tierDay) {
+                int end = highWater;
+                IntStream.range(0, chunks(end)).parallel().forEach(chunk -> {
+                    for (int slot = chunk * CHUNK; slot < Math.min(end, (chunk + 1) * CHUNK); slot++) {
+                        if (tier[slot] != FREE) {
+                            tier[slot] = tierOf(spendCents[slot], lastPurchaseDay[slot], today);
+                        }
+                    }
+                });
+                tierDay = today;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void markChanged(UUID id) {
+        Set<UUID> changed = changedDuringLoad;
+        if (changed != null) {
+            changed.add(id);
+        }
+    }
+
+    private static int chunks(int end) {
+        return (end + CHUNK - 1) / CHUNK;
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (highWater == tier.length) {
+            int capacity = tier.length * 2;
+            idHigh = Arrays.copyOf(idHigh, capacity);
+            idLow = Arrays.copyOf(idLow, capacity);
+            spendCents = Arrays.copyOf(spendCents, capacity);
+            lastPurchaseDay = Arrays.copyOf(lastPurchaseDay, capacity);
+            tier = Arrays.copyOf(tier, capacity);
+        }
+        return highWater++;
+    }
+
+    private int find(long high, long low) {
+        int position = position(high, low);
+        return position < 0 ? -1 : table[position] - 1;
+    }
+
+    private int position(long high, long low) {
+        int mask = table.length - 1;
+        for (int position = home(high, low, mask); table[position] != 0; position = (position + 1) & mask) {
+            int slot = table[position] - 1;
+            if (idHigh[slot] == high && idLow[slot] == low) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(int slot) {
+        if ((live + 1) * 2 > table.length) {
+            int[] old = table;
+            table = new int[old.length * 2];
+            for (int entry : old) {
+                if (entry != 0) {
+                    place(entry - 1);
+                }
+            }
+        }
+        place(slot);
+    }
+
+    private void place(int slot) {
+        int mask = table.length - 1;
+        int position = home(idHigh[slot], idLow[slot], mask);
+        while (table[position] != 0) {
+            position = (position + 1) & mask;
+        }
+        table[position] = slot + 1;
+    }
+
+    /**
+     * Linear-probing deletion by backward shift, so no tombstones are needed
+     */
+    private void deleteAt(int position) {
+        int mask = table.length - 1;
+        int gap = position;
+        table[gap] = 0;
+        for (int next = (gap + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int slot = table[next] - 1;
+            int home = home(idHigh[slot], idLow[slot], mask);
+            // move the entry into the gap unless its home lies cyclically in (gap, next]
+            boolean homeBetween = gap <= next ? (home > gap && home <= next) : (home > gap || home <= next);
+            if (!homeBetween) {
+                table[gap] = table[next];
+                table[next] = 0;
+                gap = next;
+            }
+        }
+    }
+
+    private static int home(long high, long low, int mask) {
+        long hash = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+}
@@ -1,33 +1,77 @@
 package com.example.customer.service;
 
+import com.example.customer.bulkhead.Bulkhead;
 import com.example.customer.exception.CustomerNotFoundException;
+import com.example.customer.model.BulkUpdateResult;
 import com.example.customer.model.Customer;
+import com.example.customer.model.CustomerSegment;
+import com.example.customer.model.PurchaseEvent;
+import com.example.customer.model.SpendCorrection;
+import com.example.customer.model.UuidV7;
+import com.example.customer.repository.CustomerCache;
 import com.example.customer.repository.CustomerRepository;
 import io.micrometer.common.util.StringUtils;
 import org.apache.catalina.util.StringUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.CollectionUtils;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @Service
 public class CustomerService {
     private static final Logger logger = LoggerFactory.getLogger(CustomerService.class);
+    private static final int WRITE_ATTEMPTS = 3;
 
     @Autowired
     private CustomerRepository repository;
 
+    @Autowired
+    private PurchaseAggregator purchaseAggregator;
+
+    @Autowired
+    private CustomerPartitions partitions;
+
+    @Autowired
+    private CustomerChangeNotifier changes;
+
+    @Autowired
+    private CustomerSegmentIndex segmentIndex;
+
+    @Autowired
+    private SpendCorrectionService spendCorrections;
+
+    @Autowired
+    private TransactionTemplate transactions;
+
+    @Autowired
+    private CustomerCache cache;
+
+    @Value("${customer.single-flight.timeout:PT2S}")
+    private Duration singleFlightTimeout = Duration.ofSeconds(2);
+
+    // concurrent identical lookups share one database call
+    private final SingleFlight<UUID, Optional<Customer>> byId = new SingleFlight<>();
+    private final SingleFlight<String, Optional<Customer>> byEmail = new SingleFlight<>();
+    private final SingleFlight<String, List<Customer>> byName = new SingleFlight<>();
+
     /**
      * Create customer
      * @param customer Customer
      * @return Customer
      */
+    @Bulkhead(Bulkhead.Type.WRITE)
     public Customer create(Customer customer) {
         logger.info("Creating customer with email: {}", customer.getEmail());
         if(customer.getName() != null){
@@ -36,17 +80,31 @@ public class CustomerService {
         if(customer.getEmail() != null){
             customer.setEmail(customer.getEmail().trim().toLowerCase());
         }
-        return repository.save(customer);
+        // the id picks the partition, so it has to be known before the insert
+        customer.setId(partitions.isEnabled() ? UuidV7.next() : null);
+        customer.setVersion(null);
+        // the insert is flushed at commit, so the partition stays bound until then
+        Customer saved = partitions.onPartitionOf(customer.getId(), () -> transactions.execute(status -> {
+            Customer result = repository.save(customer);
+            changes.saved(result);
+            return result;
+        }));
+        partitions.remember(saved);
+        return saved;
     }
 
+    @Bulkhead(Bulkhead.Type.READ)
     public Optional<Customer> getById(UUID id) {
         logger.debug("Fetching customer by ID: {}", id);
-        return repository.findById(id);
+        return byId.execute(id, singleFlightTimeout, () -> partitions.onPartitionOf(id, () -> repository.findById(id)));
     }
 
+    @Bulkhead(Bulkhead.Type.READ)
     public List<Customer> getByName(String name) {
         logger.debug("Fetching customer by name: {}", name);
-        List<Customer> customers = repository.findByName(name.trim().toLowerCase());
+        String normalized = name.trim().toLowerCase();
+        List<Customer> customers = byName.execute(normalized, singleFlightTimeout,
+                () -> partitions.fanOut(() -> repository.findByName(normalized)));
         if(CollectionUtils.isEmpty(customers)){
             logger.warn("Customer not found with name: {}", name);
             throw new CustomerNotFoundException("Customer not found");
@@ -54,31 +112,126 @@ public class CustomerService {
         return customers;
     }
 
+    @Bulkhead(Bulkhead.Type.READ)
     public Optional<Customer> getByEmail(String email) {
         logger.debug("Fetching customer by email: {}", email);
-        return repository.findByEmail(email.trim().toLowerCase());
+        String normalized = email.trim().toLowerCase();
+        return byEmail.execute(normalized, singleFlightTimeout,
+                () -> partitions.findByEmail(normalized, () -> repository.findByEmail(normalized)));
     }
 
+    /**
+     * Update customer. The last update wins: a version conflict is retried, see {@link #retryingConflicts}.
+     * @param id UUID
+     * @param updated Customer
+     * @return Customer
+     */
+    @Bulkhead(Bulkhead.Type.WRITE)
     public Customer update(UUID id, Customer updated) {
-        return repository.findById(id)
+        return retryingConflicts(id, () -> updateOnce(id, updated));
+    }
+
+    private Customer updateOnce(UUID id, Customer updated) {
+        // the whole transaction runs on the partition: a cached entity is only written when it is flushed
+        Customer saved = partitions.onPartitionOf(id, () -> transactions.execute(status -> repository.findById(id)
                 .map(customer -> {
+                    partitions.forget(customer.getEmail());
                     customer.setName(StringUtils.isNotEmpty(updated.getName()) ? updated.getName().trim().toLowerCase() : "");
                     customer.setEmail(StringUtils.isNotEmpty(updated.getEmail()) ? updated.getEmail().trim().toLowerCase() : "");
                     customer.setAnnualSpend(updated.getAnnualSpend());
                     customer.setLastPurchaseDate(updated.getLastPurchaseDate());
                     logger.info("Creating customer with email: {}", customer.getEmail());
                     logger.debug("Found customer, applying updates");
-                    return repository.save(customer);
-                }).orElseThrow(() -> new CustomerNotFoundException("Customer not found"));
+                    Customer result = repository.save(customer);
+                    // flushed here so a version conflict surfaces as OptimisticLockingFailureException
+                    repository.flush();
+                    changes.saved(result);
+                    return result;
+                }).orElseThrow(() -> new CustomerNotFoundException("Customer not found"))));
+        partitions.remember(saved);
+        return saved;
+    }
+
+    /**
+     * Run a write to one customer, retrying a version conflict with the customer read again from the database,
+     * up to {@link #WRITE_ATTEMPTS} times. Inside the caller's own transaction the conflict is thrown at once,
+     * because that transaction is already marked for rollback.
+     */
+    private <T> T retryingConflicts(UUID id, Supplier<T> write) {
+        boolean retryable = !TransactionSynchronizationManager.isActualTransactionActive();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return write.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (!retryable || attempt == WRITE_ATTEMPTS) {
+                    throw e;
+                }
+                // purchase flushes and spend corrections bump the version with JDBC and evict the cached customer
+                // only after they commit, so a write in between starts from a stale copy
+                logger.debug("Customer with ID {} changed during write, retrying", id);
+                cache.evict(List.of(id));
+            }
+        }
+    }
+
+    /**
+     * Apply corrections to annual spend and last purchase date in batches
+     * @param corrections List of SpendCorrection
+     * @return BulkUpdateResult with the ids of unknown customers
+     */
+    @Bulkhead(Bulkhead.Type.WRITE)
+    public BulkUpdateResult bulkUpdate(List<SpendCorrection> corrections) {
+        logger.info("Applying {} spend corrections", corrections.size());
+        return spendCorrections.apply(corrections);
     }
 
+    /**
+     * Delete customer. Only a customer that existed is reported as deleted to the outbox and listeners.
+     * @param id UUID
+     */
+    @Bulkhead(Bulkhead.Type.WRITE)
     public void delete(UUID id) {
         logger.info("Deleting customer with ID: {}", id);
-        repository.deleteById(id);
+        retryingConflicts(id, () -> partitions.onPartitionOf(id, () -> transactions.execute(status -> {
+            Customer customer = repository.findById(id).orElseThrow(() -> {
+                logger.warn("Customer not found with ID: {}", id);
+                return new CustomerNotFoundException("Customer not found");
+            });
+            repository.delete(customer);
+            repository.flush();
+            changes.deleted(customer);
+            return null;
+        })));
+    }
+
+    /**
+     * Record a purchase. Annual spend and last purchase date are updated asynchronously in batches.
+     * @param id UUID
+     * @param event PurchaseEvent
+     */
+    public void recordPurchase(UUID id, PurchaseEvent event) {
+        logger.debug("Recording purchase of {} for customer with ID: {}", event.getAmount(), id);
+        purchaseAggregator.record(id, event);
+    }
+
+    /**
+     * Count the customers in a segment and, unless countOnly, return one page of their ids
+     * @param query SegmentQuery
+     * @param countOnly boolean
+     * @param page zero-based page
+     * @param size page size
+     * @return CustomerSegment
+     */
+    @Bulkhead(Bulkhead.Type.READ)
+    public CustomerSegment getSegment(CustomerSegmentIndex.SegmentQuery query, boolean countOnly, int page, int size) {
+        long count = segmentIndex.count(query);
+        List<UUID> ids = countOnly ? List.of() : segmentIndex.ids(query, (long) page * size, size);
+        return new CustomerSegment(count, page, size, ids);
     }
 
+    @Bulkhead(Bulkhead.Type.READ)
     public List<Customer> getAll() {
-        List<Customer> customers =  repository.findAll();
+        List<Customer> customers = partitions.fanOut(repository::findAll);
         if(CollectionUtils.isEmpty(customers)){
             throw new CustomerNotFoundException("No Customers present in db, please add them to DB.");
         }
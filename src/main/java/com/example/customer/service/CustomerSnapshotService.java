@@ -0,0 +1,258 @@
+package com.example.customer.service;
+
+import com.example.customer.model.Customer;
+import com.example.customer.repository.CustomerBatchRepository;
+import com.example.customer.repository.CustomerCache;
+import com.example.customer.repository.CustomerSnapshotStore;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a durable copy of the in-memory customer table.
+ * Every committed change is appended to the journal, a full snapshot is written periodically,
+ * and on startup the table is rebuilt from the snapshot plus the journal before the application reports ready.
+ * <p>
+ * Changes are journaled after their transaction commits, so the journal never holds a change that rolled back.
+ * The price is a window between commit and append: a crash inside it loses the change, and the restore brings back
+ * the customer as the snapshot or an earlier journal entry had it (or not at all, for a new customer).
+ * Commit callbacks of concurrent transactions can also append in a different order from their commits, so the restore
+ * keeps the highest version of each customer rather than the last entry appended.
+ * <p>
+ * A failed append is not retried, the change is already committed. It is counted in
+ * {@code customer.snapshot.journal.failures} and a snapshot follows within {@code customer.snapshot.repair-delay-ms},
+ * which captures the table including the change the journal is missing.
+ */
+@Service
+@Order(1)
+@ConditionalOnProperty(name = "customer.snapshot.enabled", havingValue = "true")
+public class CustomerSnapshotService implements CustomerChangeListener, ApplicationRunner, MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSnapshotService.class);
+
+    private static final int RESTORE_BATCH_SIZE = 1000;
+
+    @Autowired
+    private CustomerSnapshotStore store;
+
+    @Autowired
+    private CustomerBatchRepository batchRepository;
+
+    @Autowired
+    private CustomerPartitions partitions;
+
+    @Autowired
+    private CustomerCache cache;
+
+    @Value("${customer.snapshot.on-shutdown:true}")
+    private boolean snapshotOnShutdown;
+
+    private volatile boolean restored;
+
+    // set when an append failed, until a snapshot has captured the table again
+    private volatile boolean journalIncomplete;
+
+    private final AtomicLong journalFailures = new AtomicLong();
+
+    /**
+     * The newest journal entry of one customer; a deletion has no customer
+     */
+    private record JournalEntry(long version, Customer customer) {
+        boolean deleted() {
+            return customer == null;
+        }
+
+        /**
+         * A deletion is newer than a save of the same version, the version the customer had when it was deleted
+         */
+        boolean supersedes(long otherVersion, boolean otherDeleted) {
+            return version > otherVersion || version == otherVersion && (deleted() || !otherDeleted);
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        long start = System.nanoTime();
+        // only the newest journal entry per customer matters
+        Map<UUID, JournalEntry> latest = new HashMap<>();
+        long fromJournal = store.replayJournal(new CustomerSnapshotStore.JournalVisitor() {
+            @Override
+            public void saved(Customer customer) {
+                keepNewest(latest, customer.getId(), new JournalEntry(customer.getVersion(), customer));
+            }
+
+            @Override
+            public void deleted(UUID id, long version) {
+                keepNewest(latest, id, new JournalEntry(version, null));
+            }
+        });
+
+        List<Customer> batch = new ArrayList<>(RESTORE_BATCH_SIZE);
+        if (store.hasSnapshot()) {
+            // the snapshot is the complete table, so seed rows it does not contain must go
+            partitions.fanOut(() -> {
+                batchRepository.deleteAll();
+                return List.of();
+            });
+        }
+        long fromSnapshot = store.readSnapshot(customer -> {
+            // an entry appended after the rotation can still be older than what the snapshot read from the table
+            JournalEntry entry = latest.get(customer.getId());
+            if (entry != null && !entry.supersedes(customer.getVersion(), false)) {
+                latest.remove(customer.getId());
+            }
+            batch.add(customer);
+            if (batch.size() == RESTORE_BATCH_SIZE) {
+                upsert(batch);
+                batch.clear();
+            }
+        });
+        upsert(batch);
+
+        List<Customer> saved = new ArrayList<>();
+        List<UUID> deleted = new ArrayList<>();
+        latest.forEach((id, entry) -> {
+            if (entry.deleted()) {
+                deleted.add(id);
+            } else {
+                saved.add(entry.customer());
+            }
+        });
+        partitions.groupByPartition(deleted, id -> id)
+                .forEach((partition, ids) -> partitions.onPartition(partition, () -> {
+                    batchRepository.delete(ids);
+                    return null;
+                }));
+        upsert(saved);
+        // the table was rewritten underneath Hibernate
+        cache.evictAll();
+        restored = true;
+
+        logger.info("Restored {} customers from snapshot and {} journal entries in {} ms",
+                fromSnapshot, fromJournal, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        if (fromJournal > 0) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Write a full snapshot and drop the journal entries it covers
+     */
+    @Scheduled(fixedDelayString = "${customer.snapshot.interval-ms:300000}",
+            initialDelayString = "${customer.snapshot.interval-ms:300000}")
+    public synchronized void snapshot() {
+        if (!restored) {
+            return;
+        }
+        long start = System.nanoTime();
+        // an append failing from here on is not necessarily covered by this snapshot and sets the flag again
+        boolean repairing = journalIncomplete;
+        journalIncomplete = false;
+        try {
+            // rotate before reading the table: entries in the old journal are then all committed and visible to the scan
+            store.rotateJournal();
+            long count = store.writeSnapshot(sink -> {
+                for (int partition = 0; partition < partitions.count(); partition++) {
+                    partitions.onPartition(partition, () -> {
+                        batchRepository.forEach(sink);
+                        return null;
+                    });
+                }
+            });
+            store.discardRotatedJournal();
+            logger.info("Wrote snapshot of {} customers to {} in {} ms", count, store.getDirectory(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | UncheckedIOException e) {
+            logger.error("Failed to write customer snapshot, changes remain in the journal", e);
+            if (repairing) {
+                journalIncomplete = true;
+            }
+        }
+    }
+
+    /**
+     * Write a snapshot soon after a failed journal append instead of waiting for the next interval
+     */
+    @Scheduled(fixedDelayString = "${customer.snapshot.repair-delay-ms:5000}")
+    public void snapshotIfJournalIncomplete() {
+        if (journalIncomplete) {
+            snapshot();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (snapshotOnShutdown) {
+            snapshot();
+        }
+    }
+
+    @Override
+    public void onSaved(Customer customer) {
+        try {
+            store.appendSaved(customer);
+        } catch (IOException e) {
+            journalFailed();
+            logger.error("Failed to journal customer with ID: {}, a snapshot will cover it", customer.getId(), e);
+        }
+    }
+
+    @Override
+    public void onDeleted(Customer customer) {
+        try {
+            store.appendDeleted(customer.getId(), customer.getVersion() == null ? 0 : customer.getVersion());
+        } catch (IOException e) {
+            journalFailed();
+            logger.error("Failed to journal deletion of customer with ID: {}, a snapshot will cover it", customer.getId(), e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("customer.snapshot.journal.failures", journalFailures, AtomicLong::get)
+                .description("Committed changes that could not be appended to the journal")
+                .register(registry);
+        Gauge.builder("customer.snapshot.journal.incomplete", this, service -> service.journalIncomplete ? 1 : 0)
+                .description("1 while the journal misses a committed change that no snapshot has captured yet")
+                .register(registry);
+    }
+
+    private void journalFailed() {
+        journalFailures.incrementAndGet();
+        journalIncomplete = true;
+    }
+
+    private static void keepNewest(Map<UUID, JournalEntry> latest, UUID id, JournalEntry entry) {
+        latest.merge(id, entry, (current, candidate) ->
+                candidate.supersedes(current.version(), current.deleted()) ? candidate : current);
+    }
+
+    private void upsert(List<Customer> customers) {
+        partitions.groupByPartition(customers, Customer::getId)
+                .forEach((partition, group) -> partitions.onPartition(partition, () -> {
+                    batchRepository.upsert(group);
+                    return null;
+                }));
+    }
+}
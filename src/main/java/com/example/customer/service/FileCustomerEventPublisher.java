@@ -0,0 +1,60 @@
+package com.example.customer.service;
+
+import com.example.customer.model.OutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Local stand-in for a message broker: appends each event as one line of JSON to a file.
+ */
+public class FileCustomerEventPublisher implements CustomerEventPublisher {
+
+    private final ObjectMapper objectMapper;
+    private final Path file;
+
+    public FileCustomerEventPublisher(ObjectMapper objectMapper, Path file) {
+        this.objectMapper = objectMapper;
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        StringBuilder lines = new StringBuilder(events.size() * 256);
+        try {
+            for (OutboxEvent event : events) {
+                ObjectNode message = objectMapper.createObjectNode();
+                message.put("eventId", event.getId());
+                message.put("type", event.getType().name());
+                message.put("customerId", event.getCustomerId().toString());
+                message.put("version", event.getCustomerVersion());
+                message.put("occurredAt", event.getCreatedAt().toString());
+                if (event.getPayload() == null) {
+                    message.putNull("customer");
+                } else {
+                    message.putRawValue("customer", new RawValue(event.getPayload()));
+                }
+                lines.append(objectMapper.writeValueAsString(message)).append('\n');
+            }
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.writeString(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize customer events", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append customer events to " + file, e);
+        }
+    }
+}
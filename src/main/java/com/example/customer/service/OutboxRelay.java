@@ -0,0 +1,177 @@
+package com.example.customer.service;
+
+import com.example.customer.model.OutboxEvent;
+import com.example.customer.repository.CustomerOutboxRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox of every partition and hands the events to the {@link CustomerEventPublisher} in batches,
+ * deleting them once published. When a batch fails its events are tried one at a time, so one bad event does
+ * not hold up the others. A failed event is retried with exponential backoff and later events of the same
+ * customer wait for it, which keeps each customer's events in order.
+ */
+@Service
+@ConditionalOnProperty(name = "customer.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Autowired
+    private CustomerOutboxRepository outboxRepository;
+
+    @Autowired
+    private CustomerPartitions partitions;
+
+    @Autowired
+    private CustomerEventPublisher publisher;
+
+    @Value("${customer.outbox.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${customer.outbox.retry.initial-backoff:PT1S}")
+    private Duration initialBackoff = Duration.ofSeconds(1);
+
+    @Value("${customer.outbox.retry.max-backoff:PT5M}")
+    private Duration maxBackoff = Duration.ofMinutes(5);
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile long pending;
+    private volatile Instant oldestPending;
+    private volatile long lastPublishDelayMs;
+    private volatile boolean started;
+
+    /**
+     * Start relaying once startup is complete, when the outbox table exists in every partition
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        started = true;
+    }
+
+    @Scheduled(fixedDelayString = "${customer.outbox.poll-interval-ms:500}")
+    public void relay() {
+        if (!started) {
+            return;
+        }
+        long backlog = 0;
+        Instant oldest = null;
+        for (int partition = 0; partition < partitions.count(); partition++) {
+            int target = partition;
+            try {
+                drain(target);
+            } catch (RuntimeException e) {
+                logger.error("Failed to relay customer events of partition {}", target, e);
+            }
+            CustomerOutboxRepository.Backlog remaining = partitions.onPartition(target, outboxRepository::backlog);
+            backlog += remaining.pending();
+            if (remaining.oldest() != null && (oldest == null || remaining.oldest().isBefore(oldest))) {
+                oldest = remaining.oldest();
+            }
+        }
+        pending = backlog;
+        oldestPending = oldest;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("customer.outbox.pending", this, relay -> relay.pending)
+                .description("Customer events waiting in the outbox")
+                .register(registry);
+        Gauge.builder("customer.outbox.lag", this, relay -> {
+                    Instant oldest = relay.oldestPending;
+                    return oldest == null ? 0 : Duration.between(oldest, Instant.now()).toMillis() / 1000.0;
+                })
+                .description("Age of the oldest customer event waiting in the outbox")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("customer.outbox.publish.delay", this, relay -> relay.lastPublishDelayMs)
+                .description("Time from commit to publication of the oldest event in the last published batch")
+                .baseUnit("milliseconds")
+                .register(registry);
+        FunctionCounter.builder("customer.outbox.published", published, AtomicLong::get)
+                .description("Customer events published")
+                .register(registry);
+        FunctionCounter.builder("customer.outbox.failures", failures, AtomicLong::get)
+                .description("Failed attempts to publish a customer event")
+                .register(registry);
+    }
+
+    private void drain(int partition) {
+        while (true) {
+            List<OutboxEvent> batch = partitions.onPartition(partition, () -> outboxRepository.findDue(Instant.now(), batchSize));
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<Long> done;
+            try {
+                publisher.publish(batch);
+                done = batch.stream().map(OutboxEvent::getId).toList();
+            } catch (RuntimeException e) {
+                logger.warn("Publishing {} customer events failed, retrying them one at a time", batch.size(), e);
+                done = publishOneByOne(partition, batch);
+            }
+            List<Long> published = done;
+            partitions.onPartition(partition, () -> {
+                outboxRepository.delete(published);
+                return null;
+            });
+            this.published.addAndGet(done.size());
+            lastPublishDelayMs = Duration.between(batch.get(0).getCreatedAt(), Instant.now()).toMillis();
+            // stop after a failure and leave the rest for the next run rather than walking the backlog
+            if (done.size() < batch.size() || batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private List<Long> publishOneByOne(int partition, List<OutboxEvent> batch) {
+        List<Long> done = new ArrayList<>(batch.size());
+        Set<UUID> blocked = new HashSet<>();
+        for (OutboxEvent event : batch) {
+            if (blocked.contains(event.getCustomerId())) {
+                continue;
+            }
+            try {
+                publisher.publish(List.of(event));
+                done.add(event.getId());
+            } catch (RuntimeException e) {
+                blocked.add(event.getCustomerId());
+                failures.incrementAndGet();
+                Instant retryAt = Instant.now().plus(backoff(event.getAttempts()));
+                logger.error("Failed to publish {} event {} for customer with ID: {} (attempt {}), retrying at {}",
+                        event.getType(), event.getId(), event.getCustomerId(), event.getAttempts() + 1, retryAt, e);
+                partitions.onPartition(partition, () -> {
+                    outboxRepository.retryAt(event.getId(), retryAt);
+                    return null;
+                });
+            }
+        }
+        return done;
+    }
+
+    Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.customer.service;
+
+import com.example.customer.model.Customer;
+import com.example.customer.repository.CustomerBatchRepository;
+import com.example.customer.repository.CustomerCache;
+import com.example.customer.repository.CustomerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Prepares partitioned storage on startup.
+ * Hibernate only manages the schema of the default partition, so the customer table is exported to any
+ * partition that lacks it. Rows that sit in the wrong partition, such as the data.sql seed rows which are
+ * always loaded into the default partition, are then moved to the partition their id hashes to.
+ */
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "customer.partitions.enabled", havingValue = "true")
+public class PartitionInitializer implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionInitializer.class);
+
+    @Autowired
+    private CustomerPartitions partitions;
+
+    @Autowired
+    private CustomerRepository repository;
+
+    @Autowired
+    private CustomerBatchRepository batchRepository;
+
+    @Autowired
+    private CustomerCache cache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (int partition = 0; partition < partitions.count(); partition++) {
+            partitions.onPartition(partition, () -> {
+                if (!customerTableExists()) {
+                    entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager().exportMappedObjects(true);
+                }
+                return null;
+            });
+        }
+        for (int partition = 0; partition < partitions.count(); partition++) {
+            int source = partition;
+            List<Customer> misplaced = partitions.onPartition(source, repository::findAll).stream()
+                    .filter(customer -> partitions.partitionOf(customer.getId()) != source)
+                    .toList();
+            if (misplaced.isEmpty()) {
+                continue;
+            }
+            // plain JDBC: a JPA merge would consult the second-level cache and update instead of insert
+            partitions.groupByPartition(misplaced, Customer::getId)
+                    .forEach((target, group) -> partitions.onPartition(target, () -> {
+                        batchRepository.upsert(group);
+                        return null;
+                    }));
+            partitions.onPartition(source, () -> {
+                batchRepository.delete(misplaced.stream().map(Customer::getId).toList());
+                return null;
+            });
+            logger.info("Moved {} customers out of partition {}", misplaced.size(), source);
+        }
+        cache.evictAll();
+        logger.info("Customer storage is partitioned across {} datasources", partitions.count());
+    }
+
+    private boolean customerTableExists() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (ResultSet tables = connection.getMetaData().getTables(null, null, "CUSTOMER", null)) {
+                return tables.next();
+            }
+        }));
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.customer.service;
+
+import com.example.customer.exception.ServiceUnavailableException;
+import com.example.customer.model.PurchaseEvent;
+import com.example.customer.model.PurchaseTotal;
+import com.example.customer.repository.CustomerBatchRepository;
+import com.example.customer.repository.CustomerCache;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for purchase events.
+ * Events are summed per customer in lock-striped maps and written to the database in batches,
+ * either on a fixed interval or once the number of buffered events reaches the flush threshold.
+ * Totals that keep failing to write are dropped after a number of attempts and logged to the dead-letter logger.
+ */
+@Service
+public class PurchaseAggregator {
+    private static final Logger logger = LoggerFactory.getLogger(PurchaseAggregator.class);
+    private static final Logger deadLetters = LoggerFactory.getLogger(PurchaseAggregator.class.getName() + ".dead-letter");
+
+    private static final int STRIPES = 64;
+
+    @Autowired
+    private CustomerBatchRepository batchRepository;
+
+    @Autowired
+    private TransactionTemplate transactions;
+
+    @Autowired
+    private CustomerPartitions partitions;
+
+    @Autowired
+    private CustomerChangeNotifier changes;
+
+    @Autowired
+    private CustomerCache cache;
+
+    @Value("${customer.purchases.flush-threshold:1000}")
+    private int flushThreshold = 1000;
+
+    @Value("${customer.purchases.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${customer.purchases.max-flush-attempts:10}")
+    private int maxFlushAttempts = 10;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicInteger pendingEvents = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // failed flushes per customer, only touched while holding the flush lock
+    private final Map<UUID, Integer> failedFlushes = new HashMap<>();
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "purchase-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean closed;
+
+    public PurchaseAggregator() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Buffer a purchase for a customer
+     * @param customerId UUID
+     * @param event PurchaseEvent
+     */
+    public void record(UUID customerId, PurchaseEvent event) {
+        LocalDate purchaseDate = event.getPurchaseDate() != null ? event.getPurchaseDate() : LocalDate.now();
+        Stripe stripe = stripeFor(customerId);
+        synchronized (stripe) {
+            if (closed) {
+                throw new ServiceUnavailableException("Purchase ingestion is shutting down");
+            }
+            stripe.add(customerId, event.getAmount(), purchaseDate);
+        }
+        if (pendingEvents.incrementAndGet() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    /**
+     * Write all buffered totals to the database. Totals that fail to write are put back into the buffer,
+     * up to {@code customer.purchases.max-flush-attempts} times.
+     */
+    @Scheduled(fixedDelayString = "${customer.purchases.flush-interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            pendingEvents.set(0);
+            List<PurchaseTotal> totals = drain();
+            partitions.groupByPartition(totals, PurchaseTotal::customerId).forEach((partition, group) -> {
+                for (int from = 0; from < group.size(); from += batchSize) {
+                    List<PurchaseTotal> batch = group.subList(from, Math.min(from + batchSize, group.size()));
+                    List<UUID> updated = new ArrayList<>(batch.size());
+                    try {
+                        partitions.onPartition(partition, () -> transactions.execute(status -> {
+                            int[] counts = batchRepository.addPurchases(batch);
+                            for (int i = 0; i < counts.length; i++) {
+                                if (counts[i] == 0) {
+                                    logger.warn("Dropped purchases for unknown customer with ID: {}", batch.get(i).customerId());
+                                } else {
+                                    updated.add(batch.get(i).customerId());
+                                }
+                            }
+                            // published in the same transaction, so the outbox commits together with the update
+                            if (changes.hasListeners() && !updated.isEmpty()) {
+                                batchRepository.findAll(updated).forEach(changes::saved);
+                            }
+                            return null;
+                        }));
+                    } catch (RuntimeException e) {
+                        logger.error("Failed to flush {} purchase totals, re-queueing", batch.size(), e);
+                        requeue(batch);
+                        continue;
+                    }
+                    batch.forEach(total -> failedFlushes.remove(total.customerId()));
+                    cache.evict(updated);
+                }
+            });
+            if (!totals.isEmpty()) {
+                logger.debug("Flushed purchase totals for {} customers", totals.size());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        closed = true;
+        flusher.shutdown();
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+        flush();
+    }
+
+    private List<PurchaseTotal> drain() {
+        List<PurchaseTotal> totals = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            Map<UUID, Pending> buffered;
+            synchronized (stripe) {
+                if (stripe.buffer.isEmpty()) {
+                    continue;
+                }
+                buffered = stripe.buffer;
+                stripe.buffer = new HashMap<>();
+            }
+            buffered.forEach((id, pending) -> totals.add(new PurchaseTotal(id, pending.amount, pending.lastPurchaseDate)));
+        }
+        return totals;
+    }
+
+    private void requeue(List<PurchaseTotal> totals) {
+        for (PurchaseTotal total : totals) {
+            int attempts = failedFlushes.merge(total.customerId(), 1, Integer::sum);
+            if (attempts >= maxFlushAttempts) {
+                failedFlushes.remove(total.customerId());
+                deadLetters.error("Dropped purchases for customer with ID: {} after {} failed flushes, amount {}, last purchase date {}",
+                        total.customerId(), attempts, total.amount(), total.lastPurchaseDate());
+                continue;
+            }
+            Stripe stripe = stripeFor(total.customerId());
+            synchronized (stripe) {
+                stripe.add(total.customerId(), total.amount(), total.lastPurchaseDate());
+            }
+        }
+    }
+
+    private Stripe stripeFor(UUID customerId) {
+        return stripes[(customerId.hashCode() & Integer.MAX_VALUE) % STRIPES];
+    }
+
+    private static final class Stripe {
+        private Map<UUID, Pending> buffer = new HashMap<>();
+
+        void add(UUID customerId, BigDecimal amount, LocalDate purchaseDate) {
+            Pending pending = buffer.computeIfAbsent(customerId, id -> new Pending());
+            pending.amount = pending.amount.add(amount);
+            if (pending.lastPurchaseDate == null || purchaseDate.isAfter(pending.lastPurchaseDate)) {
+                pending.lastPurchaseDate = purchaseDate;
+            }
+        }
+    }
+
+    private static final class Pending {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private LocalDate lastPurchaseDate;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.customer.service;
+
+import com.example.customer.model.BulkUpdateResult;
+import com.example.customer.model.SpendCorrection;
+import com.example.customer.repository.CustomerBatchRepository;
+import com.example.customer.repository.CustomerCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies bulk corrections to annual spend and last purchase date.
+ * Each chunk of corrections is one batched JDBC update in its own transaction, instead of a select and an update
+ * per customer through JPA. The tier is derived from these two fields, so it follows without extra work.
+ * A failure stops at the failing chunk with the earlier chunks committed; corrections are absolute values,
+ * so the request can simply be sent again.
+ */
+@Service
+public class SpendCorrectionService {
+    private static final Logger logger = LoggerFactory.getLogger(SpendCorrectionService.class);
+
+    @Autowired
+    private CustomerBatchRepository batchRepository;
+
+    @Autowired
+    private TransactionTemplate transactions;
+
+    @Autowired
+    private CustomerPartitions partitions;
+
+    @Autowired
+    private CustomerChangeNotifier changes;
+
+    @Autowired
+    private CustomerCache cache;
+
+    @Value("${customer.bulk-update.batch-size:1000}")
+    private int batchSize = 1000;
+
+    public BulkUpdateResult apply(List<SpendCorrection> corrections) {
+        long start = System.nanoTime();
+        List<UUID> notFound = new ArrayList<>();
+        int[] updatedCount = new int[1];
+        partitions.groupByPartition(corrections, SpendCorrection::getId).forEach((partition, group) -> {
+            for (int from = 0; from < group.size(); from += batchSize) {
+                List<SpendCorrection> batch = group.subList(from, Math.min(from + batchSize, group.size()));
+                List<UUID> updated = new ArrayList<>(batch.size());
+                partitions.onPartition(partition, () -> transactions.execute(status -> {
+                    int[] counts = batchRepository.correctSpend(batch);
+                    for (int i = 0; i < counts.length; i++) {
+                        if (counts[i] == 0) {
+                            notFound.add(batch.get(i).getId());
+                        } else {
+                            updated.add(batch.get(i).getId());
+                        }
+                    }
+                    if (changes.hasListeners() && !updated.isEmpty()) {
+                        batchRepository.findAll(updated).forEach(changes::saved);
+                    }
+                    return null;
+                }));
+                updatedCount[0] += updated.size();
+                cache.evict(updated);
+            }
+        });
+        logger.info("Applied {} of {} spend corrections in {} ms", updatedCount[0], corrections.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return new BulkUpdateResult(corrections.size(), updatedCount[0], notFound);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.customer.tracing;
+
+/**
+ * Request phases that are timed. Durations are inclusive, so a controller span contains the service
+ * and repository spans it called.
+ */
+public enum Phase {
+    CONTROLLER("controller"),
+    /** waiting for a bulkhead thread */
+    BULKHEAD("bulkhead"),
+    SERVICE("service"),
+    REPOSITORY("repository"),
+    SERIALIZATION("serialization");
+
+    private final String metricName;
+
+    Phase(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String metricName() {
+        return metricName;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.customer.tracing;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phase timings of one request, bound to the thread handling it.
+ * Only the outermost span of each phase is timed, so re-entrant calls are not counted twice.
+ */
+public final class RequestTrace {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+    private static final Phase[] PHASES = Phase.values();
+
+    private final String method;
+    private final String uri;
+    private final long startedAtMillis = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final long[] phaseNanos = new long[PHASES.length];
+    private final int[] depth = new int[PHASES.length];
+    private final long[] openedAt = new long[PHASES.length];
+    private long totalNanos;
+    private int status;
+
+    public RequestTrace(String method, String uri) {
+        this.method = method;
+        this.uri = uri;
+    }
+
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    public static void bind(RequestTrace trace) {
+        if (trace == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(trace);
+        }
+    }
+
+    /**
+     * Open a span on the current trace, if any
+     * @return the trace the span was opened on, to be passed to {@link #exit(RequestTrace, Phase)}
+     */
+    public static RequestTrace enter(Phase phase) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null && trace.depth[phase.ordinal()]++ == 0) {
+            trace.openedAt[phase.ordinal()] = System.nanoTime();
+        }
+        return trace;
+    }
+
+    public static void exit(RequestTrace trace, Phase phase) {
+        if (trace != null && --trace.depth[phase.ordinal()] == 0) {
+            trace.phaseNanos[phase.ordinal()] += System.nanoTime() - trace.openedAt[phase.ordinal()];
+        }
+    }
+
+    /**
+     * Start a trace for part of this request that runs on another thread alongside other parts.
+     * A trace is not shared between threads; add the timings back with {@link #join(Collection)}.
+     */
+    public RequestTrace fork() {
+        return new RequestTrace(method, uri);
+    }
+
+    /**
+     * Add the timings of forks that ran in parallel once they have all finished.
+     * Each phase grows by its longest fork, and phases already open on this trace cover that time and are left alone.
+     */
+    public void join(Collection<RequestTrace> forks) {
+        for (Phase phase : PHASES) {
+            if (depth[phase.ordinal()] > 0) {
+                continue;
+            }
+            long longest = 0;
+            for (RequestTrace fork : forks) {
+                longest = Math.max(longest, fork.phaseNanos[phase.ordinal()]);
+            }
+            phaseNanos[phase.ordinal()] += longest;
+        }
+    }
+
+    public void finish(int status) {
+        this.status = status;
+        this.totalNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * @return the timings formatted as a Server-Timing header value
+     */
+    public String toServerTiming() {
+        StringBuilder header = new StringBuilder(128);
+        for (Phase phase : PHASES) {
+            long nanos = phaseNanos[phase.ordinal()];
+            if (nanos > 0) {
+                header.append(phase.metricName()).append(";dur=").append(formatMillis(nanos)).append(", ");
+            }
+        }
+        return header.append("total;dur=").append(formatMillis(System.nanoTime() - startNanos)).toString();
+    }
+
+    public String getMethod() { return method; }
+    public String getUri() { return uri; }
+    public long getStartedAtMillis() { return startedAtMillis; }
+    public int getStatus() { return status; }
+    public long getTotalNanos() { return totalNanos; }
+
+    public Map<String, Double> getPhaseMillis() {
+        Map<String, Double> millis = new LinkedHashMap<>();
+        for (Phase phase : PHASES) {
+            millis.put(phase.metricName(), phaseNanos[phase.ordinal()] / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return millis;
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.customer.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Traces every request and keeps the slow ones in the {@link SlowRequestLog}.
+ * Clients that send {@code X-Server-Timing: on} also get the phase breakdown in a {@code Server-Timing}
+ * response header; their response body is buffered so the header can still be set after serialization.
+ */
+@Component
+@ConditionalOnProperty(name = "customer.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String OPT_IN_HEADER = "X-Server-Timing";
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    @Autowired
+    private SlowRequestLog slowRequestLog;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTrace trace = new RequestTrace(request.getMethod(), request.getRequestURI());
+        boolean optedIn = "on".equalsIgnoreCase(request.getHeader(OPT_IN_HEADER));
+        ContentCachingResponseWrapper buffered = optedIn ? new ContentCachingResponseWrapper(response) : null;
+        RequestTrace.bind(trace);
+        try {
+            chain.doFilter(request, optedIn ? buffered : response);
+        } finally {
+            RequestTrace.bind(null);
+            trace.finish(response.getStatus());
+            if (optedIn) {
+                buffered.setHeader(SERVER_TIMING_HEADER, trace.toServerTiming());
+                buffered.copyBodyToResponse();
+            }
+            slowRequestLog.record(trace);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.customer.tracing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size ring of the most recent requests that took longer than the slow threshold.
+ * Recording is a single array write, so it is cheap enough to leave on in production.
+ */
+@Component
+public class SlowRequestLog {
+
+    @Value("${customer.tracing.slow-threshold-ms:100}")
+    private long slowThresholdMs = 100;
+
+    private final AtomicReferenceArray<RequestTrace> traces;
+    private final AtomicLong next = new AtomicLong();
+
+    public SlowRequestLog(@Value("${customer.tracing.slow-buffer-size:256}") int capacity) {
+        this.traces = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void record(RequestTrace trace) {
+        if (trace.getTotalNanos() >= TimeUnit.MILLISECONDS.toNanos(slowThresholdMs)) {
+            traces.set((int) (next.getAndIncrement() % traces.length()), trace);
+        }
+    }
+
+    /**
+     * @return up to {@code limit} buffered requests, slowest first
+     */
+    public List<RequestTrace> slowest(int limit) {
+        List<RequestTrace> buffered = new ArrayList<>(traces.length());
+        for (int i = 0; i < traces.length(); i++) {
+            RequestTrace trace = traces.get(i);
+            if (trace != null) {
+                buffered.add(trace);
+            }
+        }
+        buffered.sort(Comparator.comparingLong(RequestTrace::getTotalNanos).reversed());
+        return buffered.subList(0, Math.min(limit, buffered.size()));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.customer.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converter that records JSON serialization as the serialization phase of the current trace.
+ */
+public class TimedJacksonMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public TimedJacksonMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        RequestTrace trace = RequestTrace.enter(Phase.SERIALIZATION);
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            RequestTrace.exit(trace, Phase.SERIALIZATION);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.customer.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times controller, service and repository calls on the current request's trace.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "customer.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class TracingAspect {
+
+    @Around("within(com.example.customer.controller.CustomerController)")
+    public Object controller(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, Phase.CONTROLLER);
+    }
+
+    @Around("within(com.example.customer.service.CustomerService)")
+    public Object service(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, Phase.SERVICE);
+    }
+
+    @Around("bean(*Repository)")
+    public Object repository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, Phase.REPOSITORY);
+    }
+
+    private Object trace(ProceedingJoinPoint joinPoint, Phase phase) throws Throwable {
+        RequestTrace trace = RequestTrace.enter(phase);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RequestTrace.exit(trace, phase);
+        }
+    }
+}
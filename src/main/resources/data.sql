@@ -1,4 +1,4 @@
-INSERT INTO customer (id, name, email, annual_spend, last_purchase_date) VALUES
-    ('1e64f38e-2cf6-4a48-b6c7-f1d8b3d1a111', 'Harinath Ediga', 'harinath.ediga23@gmail.com', 12000.00, '2024-12-01'),
-    ('2a91ff22-0c34-4a6f-9782-75e36f2e6b22', 'Jagan Mohan', 'jagan@gmail.com', 5000.00, '2023-11-10'),
-    ('3b77a121-19b4-4431-a3dc-8abf8f3d5c33', 'Chandra Babu', 'chandra@gmail.com', 300.00, '2023-01-01');
\ No newline at end of file
+INSERT INTO customer (id, name, email, annual_spend, last_purchase_date, version) VALUES
+    ('1e64f38e-2cf6-4a48-b6c7-f1d8b3d1a111', 'Harinath Ediga', 'harinath.ediga23@gmail.com', 12000.00, '2024-12-01', 0),
+    ('2a91ff22-0c34-4a6f-9782-75e36f2e6b22', 'Jagan Mohan', 'jagan@gmail.com', 5000.00, '2023-11-10', 0),
+    ('3b77a121-19b4-4431-a3dc-8abf8f3d5c33', 'Chandra Babu', 'chandra@gmail.com', 300.00, '2023-01-01', 0);
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.example.customer.bulkhead;
+
+import com.example.customer.exception.ServiceUnavailableException;
+import com.example.customer.repository.BulkheadRoutingDataSource;
+import com.example.customer.repository.PartitionRoutingDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadExecutorsTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private BulkheadExecutors executors;
+
+    @BeforeEach
+    void setUp() {
+        BulkheadProperties properties = new BulkheadProperties();
+        properties.setWrite(new BulkheadProperties.Settings(1, 1, Duration.ofMillis(200), 1));
+        executors = new BulkheadExecutors(properties);
+        executors.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executors.shutdown();
+    }
+
+    @Test
+    void execute_runsOnBulkheadThreadWithCallerPartition() throws Throwable {
+        PartitionRoutingDataSource.bind(3);
+        try {
+            String result = executors.execute(Bulkhead.Type.READ, () -> Thread.currentThread().getName()
+                    + " " + BulkheadRoutingDataSource.currentBulkhead() + " " + PartitionRoutingDataSource.currentPartition());
+
+            assertTrue(result.startsWith("bulkhead-read-"), result);
+            assertTrue(result.endsWith(" READ 3"), result);
+        } finally {
+            PartitionRoutingDataSource.bind(null);
+        }
+    }
+
+    @Test
+    void execute_insideTransaction_runsInlineToJoinIt() throws Throwable {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            Thread caller = Thread.currentThread();
+            assertEquals(Boolean.TRUE, executors.execute(Bulkhead.Type.WRITE, () -> Thread.currentThread() == caller
+                    && TransactionSynchronizationManager.isActualTransactionActive()));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    @Test
+    void execute_rethrowsExceptionOfTheCall() {
+        assertThrows(IllegalArgumentException.class,
+                () -> executors.execute(Bulkhead.Type.READ, () -> { throw new IllegalArgumentException("bad"); }));
+    }
+
+    @Test
+    void execute_whenFull_rejectsAndAbandonsCallsThatWaitTooLong() throws Throwable {
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture.runAsync(() -> write(() -> {
+            running.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        AtomicBoolean queuedCallRan = new AtomicBoolean();
+        CompletableFuture<Throwable> queued = CompletableFuture.supplyAsync(() -> write(() -> queuedCallRan.getAndSet(true)));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("bulkhead.queued").tag("bulkhead", "write").gauge().value() < 1) {
+            assertTrue(System.nanoTime() < deadline, "call was never queued");
+            Thread.sleep(5);
+        }
+
+        assertInstanceOf(ServiceUnavailableException.class, write(() -> true));
+        assertInstanceOf(ServiceUnavailableException.class, queued.get(5, TimeUnit.SECONDS));
+        release.countDown();
+
+        assertEquals(Boolean.TRUE, executors.execute(Bulkhead.Type.WRITE, () -> true));
+        assertFalse(queuedCallRan.get());
+        assertEquals(1, registry.get("bulkhead.rejected").tag("bulkhead", "write").functionCounter().count());
+        assertEquals(1, registry.get("bulkhead.timeouts").tag("bulkhead", "write").functionCounter().count());
+    }
+
+    /**
+     * @return the failure of the write, or null when it succeeded
+     */
+    private Throwable write(BulkheadExecutors.Work<Object> work) {
+        try {
+            executors.execute(Bulkhead.Type.WRITE, work);
+            return null;
+        } catch (Throwable t) {
+            return t;
+        }
+    }
+}
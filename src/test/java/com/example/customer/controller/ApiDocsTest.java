@@ -0,0 +1,46 @@
+package com.example.customer.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The lookups that write cached JSON bytes must still publish the Customer schema, not the byte[] return type
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:api-docs-test;QUERY_CACHE_SIZE=64")
+@AutoConfigureMockMvc
+class ApiDocsTest {
+
+    private static final String CUSTOMER = "#/components/schemas/Customer";
+    private static final String ERROR_RESPONSE = "#/components/schemas/ErrorResponse";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void getCustomerById_publishesCustomerSchema() throws Exception {
+        mockMvc.perform(get("/v3/api-docs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paths['/customers/{id}'].get.responses['200'].content.*", hasSize(1)))
+                .andExpect(jsonPath("$.paths['/customers/{id}'].get.responses['200'].content['application/json'].schema['$ref']", is(CUSTOMER)))
+                .andExpect(jsonPath("$.paths['/customers/{id}'].get.responses['404'].content['application/json'].schema['$ref']", is(ERROR_RESPONSE)));
+    }
+
+    @Test
+    void getCustomerByEmail_publishesCustomerSchema() throws Exception {
+        // the name lookup shares GET /customers and returns a list, so the two schemas are merged
+        mockMvc.perform(get("/v3/api-docs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paths['/customers'].get.responses['200'].content.*", hasSize(1)))
+                .andExpect(jsonPath("$.paths['/customers'].get.responses['200'].content['application/json'].schema.oneOf[*]['$ref']", contains(CUSTOMER)))
+                .andExpect(jsonPath("$.paths['/customers'].get.responses['200'].content['application/json'].schema.oneOf[*].items['$ref']", contains(CUSTOMER)))
+                .andExpect(jsonPath("$.paths['/customers'].get.responses['200'].content['application/json'].schema.oneOf[*].format", empty()))
+                .andExpect(jsonPath("$.paths['/customers'].get.responses['404'].content['application/json'].schema['$ref']", is(ERROR_RESPONSE)));
+    }
+}
@@ -2,7 +2,10 @@ package com.example.customer.controller;
 
 import com.example.customer.exception.CustomerNotFoundException;
 import com.example.customer.exception.GlobalExceptionHandler;
+import com.example.customer.exception.ServiceUnavailableException;
 import com.example.customer.model.Customer;
+import com.example.customer.model.PurchaseEvent;
+import com.example.customer.service.CustomerJsonCache;
 import com.example.customer.service.CustomerService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,8 +13,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
@@ -31,6 +36,9 @@ class CustomerControllerTest {
     @Mock
     private CustomerService service;
 
+    @Spy
+    private CustomerJsonCache jsonCache = new CustomerJsonCache(new ObjectMapper(), 1 << 20);
+
     @InjectMocks
     private CustomerController controller;
 
@@ -109,6 +117,16 @@ class CustomerControllerTest {
         verify(service, times(1)).getById(customerId);
     }
 
+    @Test
+    void getCustomerById_lookupTimedOut_returnsServiceUnavailable() throws Exception {
+        when(service.getById(customerId)).thenThrow(new ServiceUnavailableException("Timed out waiting for a concurrent lookup"));
+
+        mockMvc.perform(get("/customers/{id}", customerId)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message", is("Timed out waiting for a concurrent lookup")));
+    }
+
     @Test
     void getCustomerById_notFound() throws Exception {
         when(service.getById(customerId)).thenReturn(Optional.empty());
@@ -209,6 +227,60 @@ class CustomerControllerTest {
         verify(service, times(1)).update(eq(customerId), any(Customer.class));
     }
 
+    @Test
+    void recordPurchase_accepted() throws Exception {
+        mockMvc.perform(post("/customers/{id}/purchases", customerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\": 250, \"purchaseDate\": \"2025-06-01\"}"))
+                .andExpect(status().isAccepted());
+
+        verify(service, times(1)).recordPurchase(eq(customerId), any(PurchaseEvent.class));
+    }
+
+    @Test
+    void recordPurchase_missingAmount_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/customers/{id}/purchases", customerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"purchaseDate\": \"2025-06-01\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).recordPurchase(any(), any());
+    }
+
+    @Test
+    void bulkUpdateCustomers_negativeSpend_returnsBadRequest() throws Exception {
+        mockMvc.perform(patch("/customers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\": \"" + customerId + "\", \"annualSpend\": 10}, {\"id\": \"" + customerId + "\", \"annualSpend\": -1}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("annualSpend must not be negative at index 1")));
+
+        verify(service, never()).bulkUpdate(any());
+    }
+
+    @Test
+    void bulkUpdateCustomers_missingId_returnsBadRequest() throws Exception {
+        mockMvc.perform(patch("/customers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"annualSpend\": 10}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("id is missing at index 0")));
+
+        verify(service, never()).bulkUpdate(any());
+    }
+
+    @Test
+    void updateCustomer_conflict_returnsConflict() throws Exception {
+        when(service.update(eq(customerId), any(Customer.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Customer.class, customerId));
+
+        mockMvc.perform(put("/customers/{id}", customerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(customer)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", is("Conflict")));
+    }
+
     @Test
     void deleteCustomer_success() throws Exception {
         doNothing().when(service).delete(customerId);
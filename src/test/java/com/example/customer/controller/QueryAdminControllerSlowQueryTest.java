@@ -0,0 +1,70 @@
+package com.example.customer.controller;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.jdbc.spi.JdbcServices;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Slow statements reach {@code GET /admin/queries} through {@code customer.queries.slow-threshold-ms}.
+ * The threshold is 1 ms, the lowest Hibernate honours: 0 turns slow query logging off.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:slow-query-test;QUERY_CACHE_SIZE=64",
+        "customer.queries.slow-threshold-ms=1"
+})
+public class QueryAdminControllerSlowQueryTest {
+
+    private static final String SLOW_QUERY = "SELECT PAUSE(20)";
+
+    @Autowired
+    private QueryAdminController controller;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Called by H2 for {@code PAUSE(millis)}, which is why the class is public
+     */
+    public static int pause(int millis) {
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+        return millis;
+    }
+
+    @Test
+    void slowThreshold_isPassedToHibernate() {
+        JdbcServices jdbcServices = entityManagerFactory.unwrap(SessionFactory.class)
+                .getSessionFactoryOptions().getServiceRegistry().requireService(JdbcServices.class);
+
+        assertEquals(1, jdbcServices.getSqlStatementLogger().getLogSlowQuery());
+    }
+
+    @Test
+    void statementOverThreshold_isListedAsSlowQuery() {
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS PAUSE FOR '" + getClass().getName() + ".pause'");
+
+        entityManager.createNativeQuery(SLOW_QUERY).getSingleResult();
+
+        QueryAdminController.QueryReport report = controller.queries(20);
+        QueryAdminController.SlowQueryView slow = report.slowQueries().stream()
+                .filter(query -> query.sql().contains(SLOW_QUERY))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("not listed as slow: " + report.slowQueries()));
+        assertTrue(slow.maxMs() >= 20, () -> "slowest time " + slow.maxMs() + " ms");
+    }
+}
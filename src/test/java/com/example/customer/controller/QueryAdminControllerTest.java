@@ -0,0 +1,98 @@
+package com.example.customer.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class QueryAdminControllerTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Statistics statistics;
+
+    @InjectMocks
+    private QueryAdminController controller;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        when(statistics.getStart()).thenReturn(Instant.parse("2025-06-01T00:00:00Z"));
+        when(statistics.getQueries()).thenReturn(new String[]{"select fast", "select slowest", "select frequent"});
+        stubQuery("select fast", 100, 5);
+        stubQuery("select slowest", 2, 900);
+        stubQuery("select frequent", 5_000, 300);
+        Map<String, Long> slowQueries = new LinkedHashMap<>();
+        slowQueries.put("select * from customer where name = ?", 70L);
+        slowQueries.put("select * from customer", 120L);
+        when(statistics.getSlowQueries()).thenReturn(slowQueries);
+    }
+
+    @Test
+    void queries_sortedByTotalTimeMostFirst() throws Exception {
+        mockMvc.perform(get("/admin/queries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.queries", hasSize(3)))
+                .andExpect(jsonPath("$.queries[0].query", is("select slowest")))
+                .andExpect(jsonPath("$.queries[0].totalMs", is(900)))
+                .andExpect(jsonPath("$.queries[1].query", is("select frequent")))
+                .andExpect(jsonPath("$.queries[1].executions", is(5_000)))
+                .andExpect(jsonPath("$.queries[2].query", is("select fast")))
+                .andExpect(jsonPath("$.slowQueries[0].sql", is("select * from customer")))
+                .andExpect(jsonPath("$.slowQueries[0].maxMs", is(120)))
+                .andExpect(jsonPath("$.slowQueries[1].maxMs", is(70)));
+    }
+
+    @Test
+    void queries_limitCapsBothLists() throws Exception {
+        mockMvc.perform(get("/admin/queries").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.queries", hasSize(1)))
+                .andExpect(jsonPath("$.queries[0].query", is("select slowest")))
+                .andExpect(jsonPath("$.slowQueries", hasSize(1)))
+                .andExpect(jsonPath("$.slowQueries[0].maxMs", is(120)));
+    }
+
+    @Test
+    void queries_negativeLimit_returnsEmptyLists() throws Exception {
+        mockMvc.perform(get("/admin/queries").param("limit", "-5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.queries", hasSize(0)))
+                .andExpect(jsonPath("$.slowQueries", hasSize(0)));
+    }
+
+    private void stubQuery(String query, long executions, long totalMs) {
+        QueryStatistics stats = mock(QueryStatistics.class);
+        when(stats.getExecutionCount()).thenReturn(executions);
+        when(stats.getExecutionTotalTime()).thenReturn(totalMs);
+        when(statistics.getQueryStatistics(query)).thenReturn(stats);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.customer.loadtest;
+
+import com.example.customer.model.Customer;
+import com.example.customer.service.CustomerService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the application with the configured open-model load and writes a JSON report.
+ * Run with {@code mvn -Ploadtest test}; parameters are the {@code loadtest.*} system properties.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        // per-request INFO logging would dominate the measurements
+        "logging.level.com.example.customer=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+class CustomerLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(CustomerLoadTest.class);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CustomerService service;
+
+    @Test
+    void sustainsConfiguredLoad() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        List<OpenModelLoadGenerator.SeededCustomer> seeded = new ArrayList<>(settings.seedCustomers());
+        for (int i = 0; i < settings.seedCustomers(); i++) {
+            Customer customer = new Customer();
+            customer.setName("seed " + i);
+            customer.setEmail("seed" + i + "@loadtest.example.com");
+            customer.setAnnualSpend(BigDecimal.valueOf(i % 20_000));
+            customer.setLastPurchaseDate(LocalDate.now().minusDays(i % 400));
+            Customer created = service.create(customer);
+            seeded.add(new OpenModelLoadGenerator.SeededCustomer(created.getId(), created.getEmail()));
+        }
+
+        LoadReport report = new OpenModelLoadGenerator("http://localhost:" + port, settings, seeded).run();
+        report.write(settings.report());
+        logger.warn("Load test report written to {}: {} requests, {} errors, p99 {} ms", settings.report().toAbsolutePath(),
+                report.total().requests(), report.total().errors(), report.total().latencyMs().get("p99"));
+
+        assertTrue(report.total().errorRate() <= settings.maxErrorRate(),
+                "Error rate " + report.total().errorRate() + " exceeds " + settings.maxErrorRate());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.customer.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency percentiles, throughput and error rates of the measured phase, per operation and in total
+ */
+record LoadReport(Map<String, Object> settings, Map<String, OperationStats> operations, OperationStats total) {
+
+    /**
+     * @param errors  failed responses plus rejected requests
+     * @param rejected requests never sent because {@code loadtest.max-in-flight} requests were outstanding
+     * @param throughputPerSecond successful requests per second
+     */
+    record OperationStats(long requests, long errors, long rejected, double errorRate, double throughputPerSecond,
+                          Map<String, Double> latencyMs) {
+
+        static OperationStats of(Histogram histogram, long failed, long rejected, double seconds) {
+            long requests = histogram.getTotalCount() + rejected;
+            long errors = failed + rejected;
+            Map<String, Double> latency = new LinkedHashMap<>();
+            latency.put("min", millis(histogram.getMinValue()));
+            latency.put("mean", histogram.getMean() / TimeUnit.MILLISECONDS.toNanos(1));
+            for (double percentile : new double[]{50, 90, 99, 99.9}) {
+                latency.put("p" + (percentile % 1 == 0 ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                        millis(histogram.getValueAtPercentile(percentile)));
+            }
+            latency.put("max", millis(histogram.getMaxValue()));
+            return new OperationStats(requests, errors, rejected, requests == 0 ? 0 : errors / (double) requests,
+                    (requests - errors) / seconds, latency);
+        }
+
+        private static double millis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+
+    static LoadReport of(LoadTestSettings settings, Map<Operation, Histogram> latencies,
+                         Map<Operation, LongAdder> errors, Map<Operation, LongAdder> rejected) {
+        double seconds = settings.duration().toMillis() / 1000.0;
+        Map<String, OperationStats> operations = new LinkedHashMap<>();
+        Histogram combined = null;
+        long totalErrors = 0;
+        long totalRejected = 0;
+        for (Map.Entry<Operation, Histogram> entry : latencies.entrySet()) {
+            long operationErrors = errors.get(entry.getKey()).sum();
+            long operationRejected = rejected.get(entry.getKey()).sum();
+            operations.put(entry.getKey().key, OperationStats.of(entry.getValue(), operationErrors, operationRejected, seconds));
+            combined = combined == null ? entry.getValue().copy() : add(combined, entry.getValue());
+            totalErrors += operationErrors;
+            totalRejected += operationRejected;
+        }
+        Map<String, Object> echoed = new LinkedHashMap<>();
+        echoed.put("seedCustomers", settings.seedCustomers());
+        echoed.put("ratePerSecond", settings.ratePerSecond());
+        echoed.put("warmupSeconds", settings.warmup().toSeconds());
+        echoed.put("durationSeconds", settings.duration().toSeconds());
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        settings.mix().forEach((operation, weight) -> mix.put(operation.key, weight));
+        echoed.put("mix", mix);
+        return new LoadReport(echoed, operations, OperationStats.of(combined, totalErrors, totalRejected, seconds));
+    }
+
+    void write(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), this);
+    }
+
+    private static Histogram add(Histogram into, Histogram other) {
+        into.add(other);
+        return into;
+    }
+}
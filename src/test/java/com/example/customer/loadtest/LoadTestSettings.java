@@ -0,0 +1,52 @@
+package com.example.customer.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load test parameters, read from {@code loadtest.*} system properties
+ */
+record LoadTestSettings(int seedCustomers,
+                        double ratePerSecond,
+                        Duration warmup,
+                        Duration duration,
+                        Map<Operation, Integer> mix,
+                        int maxInFlight,
+                        double maxErrorRate,
+                        Path report) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("loadtest.seed", 1000),
+                Double.parseDouble(System.getProperty("loadtest.rate", "100")),
+                Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 5)),
+                Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30)),
+                parseMix(System.getProperty("loadtest.mix", "create=10,getById=40,getByEmail=25,update=15,list=10")),
+                Integer.getInteger("loadtest.max-in-flight", 512),
+                Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01")),
+                Path.of(System.getProperty("loadtest.report", "target/loadtest-report.json")));
+    }
+
+    /**
+     * Parse weights such as {@code create=10,getById=90}
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid load test mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.ofKey(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Load test mix has no operations: " + mix);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.customer.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests are started on a fixed schedule regardless of how many are still
+ * outstanding, and latency is measured from the scheduled start rather than the actual send, so a stalled
+ * server is charged for the requests that queued up behind it (no coordinated omission).
+ */
+class OpenModelLoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final String baseUrl;
+    private final LoadTestSettings settings;
+    private final List<SeededCustomer> seeded;
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final Operation[] schedule;
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> rejected = new EnumMap<>(Operation.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong createSequence = new AtomicLong();
+
+    record SeededCustomer(UUID id, String email) {
+    }
+
+    OpenModelLoadGenerator(String baseUrl, LoadTestSettings settings, List<SeededCustomer> seeded) {
+        this.baseUrl = baseUrl;
+        this.settings = settings;
+        this.seeded = seeded;
+        this.executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+        this.schedule = weightedSchedule(settings.mix());
+        for (Operation operation : settings.mix().keySet()) {
+            latencies.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3));
+            errors.put(operation, new LongAdder());
+            rejected.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Run the warmup and measured phases, then wait for outstanding requests
+     * @return the measured-phase report
+     */
+    LoadReport run() throws InterruptedException {
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / settings.ratePerSecond());
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+        try {
+            for (long i = 0; ; i++) {
+                long intendedStart = start + i * periodNanos;
+                if (intendedStart >= end) {
+                    break;
+                }
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+                fire(operation, intendedStart, intendedStart >= measureFrom);
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return LoadReport.of(settings, latencies, errors, rejected);
+    }
+
+    private void fire(Operation operation, long intendedStart, boolean measured) {
+        if (inFlight.incrementAndGet() > settings.maxInFlight()) {
+            // the client is saturated, the request counts as failed rather than silently slowing the schedule
+            inFlight.decrementAndGet();
+            if (measured) {
+                rejected.get(operation).increment();
+            }
+            return;
+        }
+        client.sendAsync(request(operation), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    inFlight.decrementAndGet();
+                    if (!measured) {
+                        return;
+                    }
+                    latencies.get(operation).recordValue(Math.min(System.nanoTime() - intendedStart, HIGHEST_TRACKABLE_NANOS));
+                    if (failure != null || response.statusCode() >= 400) {
+                        errors.get(operation).increment();
+                    }
+                });
+    }
+
+    private HttpRequest request(Operation operation) {
+        SeededCustomer customer = seeded.get(ThreadLocalRandom.current().nextInt(seeded.size()));
+        return switch (operation) {
+            case CREATE -> json(HttpRequest.newBuilder(URI.create(baseUrl + "/customers")),
+                    "POST", body("load " + createSequence.incrementAndGet(), "load-" + UUID.randomUUID() + "@example.com"));
+            case GET_BY_ID -> HttpRequest.newBuilder(URI.create(baseUrl + "/customers/" + customer.id())).GET().build();
+            case GET_BY_EMAIL -> HttpRequest.newBuilder(URI.create(baseUrl + "/customers?email=" + customer.email())).GET().build();
+            case UPDATE -> json(HttpRequest.newBuilder(URI.create(baseUrl + "/customers/" + customer.id())),
+                    "PUT", body("updated " + customer.id(), customer.email()));
+            case LIST -> HttpRequest.newBuilder(URI.create(baseUrl + "/customers/all")).GET().build();
+        };
+    }
+
+    private static HttpRequest json(HttpRequest.Builder builder, String method, String body) {
+        return builder.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String body(String name, String email) {
+        int spend = ThreadLocalRandom.current().nextInt(20_000);
+        return "{\"name\":\"" + name + "\",\"email\":\"" + email + "\",\"annualSpend\":" + spend
+                + ",\"lastPurchaseDate\":\"" + LocalDate.now().minusDays(spend % 400) + "\"}";
+    }
+
+    private static Operation[] weightedSchedule(Map<Operation, Integer> mix) {
+        Operation[] schedule = new Operation[mix.values().stream().mapToInt(Integer::intValue).sum()];
+        int index = 0;
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                schedule[index++] = entry.getKey();
+            }
+        }
+        return schedule;
+    }
+}
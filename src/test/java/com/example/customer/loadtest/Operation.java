@@ -0,0 +1,27 @@
+package com.example.customer.loadtest;
+
+/**
+ * Request types driven by the load generator, named as they appear in {@code loadtest.mix}
+ */
+enum Operation {
+    CREATE("create"),
+    GET_BY_ID("getById"),
+    GET_BY_EMAIL("getByEmail"),
+    UPDATE("update"),
+    LIST("list");
+
+    final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    static Operation ofKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown load test operation: " + key);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.customer.loadtest;
+
+import com.example.customer.model.Customer;
+import com.example.customer.model.UuidV7;
+import com.example.customer.service.CustomerSegmentIndex;
+import com.example.customer.service.CustomerSegmentIndex.SegmentQuery;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Segment query latency of the in-memory index over a large customer table.
+ * Run with {@code mvn -Ploadtest test -Dtest=SegmentIndexBenchmark [-Dbenchmark.rows=10000000]}.
+ * Fails when a query shape averages more than {@code benchmark.max-mean-ms}.
+ */
+@Tag("loadtest")
+class SegmentIndexBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(SegmentIndexBenchmark.class);
+
+    private static final int WARMUP = 20;
+    private static final int RUNS = 20;
+
+    @Test
+    void segmentQueriesOverLargeTable() {
+        int rows = Integer.getInteger("benchmark.rows", 10_000_000);
+        long maxMeanMs = Long.getLong("benchmark.max-mean-ms", 100);
+        CustomerSegmentIndex index = new CustomerSegmentIndex();
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate today = LocalDate.now();
+        long start = System.nanoTime();
+        for (int i = 0; i < rows; i++) {
+            Customer customer = new Customer();
+            customer.setId(UuidV7.next());
+            customer.setAnnualSpend(BigDecimal.valueOf(random.nextLong(2_000_000), 2));
+            customer.setLastPurchaseDate(today.minusDays(random.nextInt(730)));
+            index.put(customer);
+        }
+        logger.warn("Loaded {} customers into the segment index in {} ms", rows,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        SegmentQuery everyone = new SegmentQuery(null, null, null, null, SegmentQuery.ALL_TIERS);
+        SegmentQuery spendBand = new SegmentQuery(200_000L, 800_000L, null, null, SegmentQuery.ALL_TIERS);
+        SegmentQuery recentGold = new SegmentQuery(null, null, (int) today.minusMonths(6).toEpochDay(), null,
+                1 << CustomerSegmentIndex.GOLD | 1 << CustomerSegmentIndex.PLATINUM);
+        double[] means = {
+                measure("count, no filter", () -> index.count(everyone)),
+                measure("count, spend band", () -> index.count(spendBand)),
+                measure("count, recent gold and platinum", () -> index.count(recentGold)),
+                measure("first page of 100 ids, spend band", () -> index.ids(spendBand, 0, 100).size()),
+                measure("deep page of 100 ids, spend band", () -> index.ids(spendBand, 2_000_000, 100).size())
+        };
+
+        for (double mean : means) {
+            assertTrue(mean <= maxMeanMs, "segment query averaged " + mean + " ms, budget " + maxMeanMs + " ms");
+        }
+    }
+
+    /**
+     * @return mean milliseconds per query
+     */
+    private double measure(String shape, LongSupplier query) {
+        for (int i = 0; i < WARMUP; i++) {
+            query.getAsLong();
+        }
+        long max = 0;
+        long total = 0;
+        long result = 0;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            result = query.getAsLong();
+            long elapsed = System.nanoTime() - start;
+            total += elapsed;
+            max = Math.max(max, elapsed);
+        }
+        double mean = total / (double) RUNS / TimeUnit.MILLISECONDS.toNanos(1);
+        logger.warn("{}: {} matches, mean {} ms, max {} ms", shape, result, String.format("%.1f", mean),
+                String.format("%.1f", max / (double) TimeUnit.MILLISECONDS.toNanos(1)));
+        return mean;
+    }
+}
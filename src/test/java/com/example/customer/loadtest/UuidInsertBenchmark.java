@@ -0,0 +1,77 @@
+package com.example.customer.loadtest;
+
+import com.example.customer.model.UuidV7;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput into a UUID primary key with random (v4) versus time-ordered (v7) ids.
+ * Uses a file-backed H2 database so index page writes are part of the cost.
+ * Run with {@code mvn -Ploadtest test -Dtest=UuidInsertBenchmark [-Dbenchmark.rows=3000000]}.
+ */
+@Tag("loadtest")
+class UuidInsertBenchmark {
+    private static final Logger logger = LoggerFactory.getLogger(UuidInsertBenchmark.class);
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int REPORT_EVERY = 500_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void compareRandomAndTimeOrderedIds() throws SQLException {
+        int rows = Integer.getInteger("benchmark.rows", 2_000_000);
+        double v4 = insert("v4", rows, UUID::randomUUID);
+        double v7 = insert("v7", rows, UuidV7::next);
+        logger.warn("Inserted {} rows: v4 {} rows/s, v7 {} rows/s ({}x)", rows,
+                Math.round(v4), Math.round(v7), String.format("%.2f", v7 / v4));
+    }
+
+    private double insert(String name, int rows, Supplier<UUID> ids) throws SQLException {
+        String url = "jdbc:h2:file:" + directory.resolve(name).toAbsolutePath();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE customer (id UUID PRIMARY KEY, name VARCHAR(255), email VARCHAR(255),"
+                        + " annual_spend NUMERIC(38,2), last_purchase_date DATE)");
+            }
+            connection.setAutoCommit(false);
+            long start = System.nanoTime();
+            long intervalStart = start;
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO customer (id, name, email, annual_spend) VALUES (?, ?, ?, ?)")) {
+                for (int i = 1; i <= rows; i++) {
+                    insert.setObject(1, ids.get());
+                    insert.setString(2, "customer " + i);
+                    insert.setString(3, "customer" + i + "@example.com");
+                    insert.setInt(4, i % 20_000);
+                    insert.addBatch();
+                    if (i % BATCH_SIZE == 0 || i == rows) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                    if (i % REPORT_EVERY == 0) {
+                        long now = System.nanoTime();
+                        logger.warn("{}: rows {}-{} at {} rows/s", name, i - REPORT_EVERY, i,
+                                Math.round(REPORT_EVERY / ((now - intervalStart) / (double) TimeUnit.SECONDS.toNanos(1))));
+                        intervalStart = now;
+                    }
+                }
+            }
+            return rows / ((System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+}
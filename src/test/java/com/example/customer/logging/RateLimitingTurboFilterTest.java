@@ -0,0 +1,66 @@
+package com.example.customer.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitingTurboFilterTest {
+
+    private LoggerContext context;
+    private RateLimitingTurboFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        filter = new RateLimitingTurboFilter();
+        filter.setContext(context);
+        filter.setLoggerName("com.example.customer.controller");
+        filter.setPermitsPerSecond(3);
+        filter.start();
+    }
+
+    @Test
+    void decide_deniesInfoLinesBeyondPermits() {
+        Logger logger = context.getLogger("com.example.customer.controller.CustomerController");
+
+        int denied = 0;
+        for (int i = 0; i < 10; i++) {
+            if (filter.decide(null, logger, Level.INFO, "Received request", null, null) == FilterReply.DENY) {
+                denied++;
+            }
+        }
+
+        // a second boundary may fall inside the loop, which refills the permits once
+        assertTrue(denied >= 4 && denied <= 7, "denied " + denied);
+        assertEquals(denied, filter.getSampledOut());
+    }
+
+    @Test
+    void decide_alwaysPassesWarningsAndOtherLoggers() {
+        Logger controller = context.getLogger("com.example.customer.controller.CustomerController");
+        Logger other = context.getLogger("com.example.customer.controllers.Other");
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, controller, Level.WARN, "Customer not found", null, null));
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, other, Level.INFO, "Received request", null, null));
+        }
+        assertEquals(0, filter.getSampledOut());
+    }
+
+    @Test
+    void decide_ignoresDisabledLevelsAndEnabledChecks() {
+        Logger logger = context.getLogger("com.example.customer.controller.CustomerController");
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, logger, Level.DEBUG, "Fetching customer", null, null));
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, logger, Level.INFO, null, null, null));
+        }
+        assertEquals(0, filter.getSampledOut());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.customer.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7Test {
+
+    @Test
+    void next_setsVersionVariantAndTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7.next();
+        long after = System.currentTimeMillis();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertTrue(UuidV7.timestamp(id) >= before && UuidV7.timestamp(id) <= after + 1);
+    }
+
+    @Test
+    void next_isStrictlyIncreasingWithinAMillisecond() {
+        UUID previous = UuidV7.next();
+        for (int i = 0; i < 200_000; i++) {
+            UUID next = UuidV7.next();
+            // compare as unsigned, the way databases order UUID columns
+            assertTrue(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()) > 0,
+                    next + " is not after " + previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void next_incrementsCounterWithinAMillisecond() {
+        UUID previous = UuidV7.next();
+        int sameMillisecond = 0;
+        for (int i = 0; i < 10_000; i++) {
+            UUID next = UuidV7.next();
+            if (UuidV7.timestamp(next) == UuidV7.timestamp(previous)) {
+                assertEquals(counter(previous) + 1, counter(next), next + " does not follow " + previous);
+                sameMillisecond++;
+            }
+            previous = next;
+        }
+        assertTrue(sameMillisecond > 0);
+    }
+
+    @Test
+    void next_isUniqueAcrossThreads() throws InterruptedException {
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                Set<UUID> local = new HashSet<>();
+                for (int i = 0; i < 50_000; i++) {
+                    local.add(UuidV7.next());
+                }
+                ids.addAll(local);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(200_000, ids.size());
+    }
+
+    private static long counter(UUID id) {
+        return id.getMostSignificantBits() & 0xFFFL;
+    }
+}
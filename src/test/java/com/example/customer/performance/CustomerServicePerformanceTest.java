@@ -0,0 +1,217 @@
+package com.example.customer.performance;
+
+import com.example.customer.model.Customer;
+import com.example.customer.model.PurchaseEvent;
+import com.example.customer.model.SpendCorrection;
+import com.example.customer.service.CustomerService;
+import com.example.customer.service.PurchaseAggregator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Budgets for the statements, latency and allocation of the hot {@link CustomerService} methods.
+ * Run with {@code mvn -Pperformance test}; a call over budget fails the build.
+ */
+@Tag("performance")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:performance-test;QUERY_CACHE_SIZE=64",
+        // scheduled work would add its statements to the measured calls
+        "customer.outbox.poll-interval-ms=3600000",
+        "customer.purchases.flush-interval-ms=3600000",
+        // per-call INFO logging would dominate the measurements
+        "logging.level.com.example.customer=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+class CustomerServicePerformanceTest {
+    private static final Logger logger = LoggerFactory.getLogger(CustomerServicePerformanceTest.class);
+
+    private static final int ITERATIONS = 2_000;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        static StatementCounter statementCounter() {
+            return new StatementCounter();
+        }
+    }
+
+    @Autowired
+    private CustomerService service;
+
+    @Autowired
+    private PurchaseAggregator aggregator;
+
+    @Autowired
+    private StatementCounter statements;
+
+    private Customer existing;
+
+    @BeforeEach
+    void setUp() {
+        existing = service.create(customer("perf " + UUID.randomUUID()));
+        statements.reset();
+    }
+
+    @Test
+    void getById_cachedCustomer() {
+        service.getById(existing.getId());
+
+        assertStatements(0, () -> service.getById(existing.getId()));
+        assertBudget("getById", 1_000, 16_000, () -> service.getById(existing.getId()));
+    }
+
+    @Test
+    void getById_unknownCustomer() {
+        assertStatements(1, () -> service.getById(UUID.randomUUID()));
+    }
+
+    @Test
+    void getByEmail() {
+        assertStatements(1, () -> service.getByEmail(existing.getEmail()));
+        assertStatements(0, () -> service.getByEmail(existing.getEmail()));
+        assertBudget("getByEmail", 5_000, 40_000, () -> service.getByEmail(existing.getEmail()));
+    }
+
+    @Test
+    void getAll_isOneQueryWhateverTheRowCount() {
+        assertStatements(1, service::getAll);
+        IntStream.range(0, 50).forEach(i -> service.create(customer("perf all " + i)));
+
+        assertStatements(1, service::getAll);
+    }
+
+    @Test
+    void create() {
+        assertStatements(2, () -> service.create(customer("perf create")));
+        assertBudget("create", 5_000, 60_000, () -> service.create(customer("perf create")));
+    }
+
+    @Test
+    void update() {
+        Customer changes = customer("perf updated");
+
+        assertStatements(2, () -> service.update(existing.getId(), changes));
+        assertBudget("update", 3_000, 40_000, () -> service.update(existing.getId(), changes));
+    }
+
+    @Test
+    void delete() {
+        assertStatements(2, () -> service.delete(existing.getId()));
+    }
+
+    @Test
+    void bulkUpdate_isBatched() {
+        List<UUID> ids = IntStream.range(0, 200).mapToObj(i -> service.create(customer("perf bulk " + i)).getId()).toList();
+
+        int few = statementsOf(() -> service.bulkUpdate(corrections(ids.subList(0, 10))));
+        int many = statementsOf(() -> service.bulkUpdate(corrections(ids)));
+
+        assertEquals(few, many, () -> "statements grow with the number of corrections: " + statements.statements());
+        assertTrue(many <= 3, () -> "over budget: " + statements.statements());
+    }
+
+    @Test
+    void recordPurchase_isWrittenBehindInOneBatch() {
+        PurchaseEvent event = new PurchaseEvent();
+        event.setAmount(BigDecimal.TEN);
+        event.setPurchaseDate(LocalDate.now());
+        List<UUID> ids = IntStream.range(0, 100).mapToObj(i -> service.create(customer("perf buyer " + i)).getId()).toList();
+
+        assertStatements(0, () -> ids.forEach(id -> service.recordPurchase(id, event)));
+        assertStatements(3, aggregator::flush);
+    }
+
+    private void assertStatements(int budget, Runnable call) {
+        int executed = statementsOf(call);
+        assertTrue(executed <= budget, () -> executed + " statements, budget " + budget + ": " + statements.statements());
+    }
+
+    private int statementsOf(Runnable call) {
+        statements.reset();
+        call.run();
+        return statements.count();
+    }
+
+    /**
+     * Latency budgets leave room for slow build machines; allocation is steadier and its budgets are tighter.
+     * Runs the call {@link #ITERATIONS} times to warm up, then as many times measured.
+     * Allocation is summed over all threads, so the work handed to bulkhead threads is included.
+     */
+    private void assertBudget(String operation, long maxMeanMicros, long maxBytesPerCall, Runnable call) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            call.run();
+        }
+        Map<Long, Long> allocatedBefore = allocatedBytesByThread();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            call.run();
+        }
+        long meanMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / ITERATIONS;
+        long bytesPerCall = allocatedSince(allocatedBefore) / ITERATIONS;
+        logger.warn("{}: {} us per call on average, {} bytes allocated per call", operation, meanMicros, bytesPerCall);
+
+        assertTrue(meanMicros <= maxMeanMicros, () -> operation + " took " + meanMicros + " us on average, budget " + maxMeanMicros);
+        assertTrue(bytesPerCall <= maxBytesPerCall, () -> operation + " allocated " + bytesPerCall + " bytes per call, budget " + maxBytesPerCall);
+    }
+
+    /**
+     * @return bytes allocated so far by each live thread, by thread id
+     */
+    private static Map<Long, Long> allocatedBytesByThread() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] ids = threads.getAllThreadIds();
+        long[] bytes = threads.getThreadAllocatedBytes(ids);
+        Map<Long, Long> allocated = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            // a thread that ended after its id was read reports -1
+            if (bytes[i] >= 0) {
+                allocated.put(ids[i], bytes[i]);
+            }
+        }
+        return allocated;
+    }
+
+    /**
+     * Thread ids are never reused, so a thread missing from the snapshot started since and counts in full.
+     * Threads that ended since are missed, which can only under-count; the total is never negative.
+     */
+    private static long allocatedSince(Map<Long, Long> before) {
+        long allocated = 0;
+        for (Map.Entry<Long, Long> thread : allocatedBytesByThread().entrySet()) {
+            allocated += thread.getValue() - before.getOrDefault(thread.getKey(), 0L);
+        }
+        return allocated;
+    }
+
+    private List<SpendCorrection> corrections(List<UUID> ids) {
+        return ids.stream().map(id -> new SpendCorrection(id, new BigDecimal("500.00"), LocalDate.now())).toList();
+    }
+
+    private Customer customer(String name) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setEmail(name.replace(' ', '.') + "@performance.example.com");
+        customer.setAnnualSpend(new BigDecimal("1000.00"));
+        customer.setLastPurchaseDate(LocalDate.now());
+        return customer;
+    }
+}
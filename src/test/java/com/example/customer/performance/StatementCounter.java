@@ -0,0 +1,76 @@
+package com.example.customer.performance;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Wraps every DataSource bean so each statement sent to the database is recorded, whichever thread sends it.
+ * A batch is one round trip, so it is recorded once.
+ */
+public class StatementCounter implements BeanPostProcessor {
+
+    private static final Set<Class<?>> STATEMENT_TYPES = Set.of(Statement.class, PreparedStatement.class, CallableStatement.class);
+
+    private final Queue<String> executed = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource, null) : bean;
+    }
+
+    public void reset() {
+        executed.clear();
+    }
+
+    public int count() {
+        return executed.size();
+    }
+
+    /**
+     * @return SQL of the statements executed since the last reset, in order
+     */
+    public List<String> statements() {
+        return List.copyOf(executed);
+    }
+
+    private Object proxy(Class<?> type, Object target, String sql) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            if (target instanceof Statement && method.getName().startsWith("execute")) {
+                String executedSql = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+                executed.add(method.getName().equals("executeBatch") ? "[batch] " + executedSql : executedSql);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Connection && method.getName().equals("getConnection")) {
+                return proxy(Connection.class, result, null);
+            }
+            if (target instanceof Connection && STATEMENT_TYPES.contains(method.getReturnType())) {
+                return proxy(method.getReturnType(), result, args != null && args.length > 0 && args[0] instanceof String s ? s : null);
+            }
+            return result;
+        });
+    }
+}
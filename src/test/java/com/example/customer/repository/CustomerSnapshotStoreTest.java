@@ -0,0 +1,163 @@
+package com.example.customer.repository;
+
+import com.example.customer.model.Customer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerSnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private CustomerSnapshotStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new CustomerSnapshotStore();
+        ReflectionTestUtils.setField(store, "directory", directory.toString());
+        store.init();
+    }
+
+    @Test
+    void snapshot_roundTripsAllFields() throws IOException {
+        Customer full = customer("harinath", "harinath.ediga23@gmail.com", new BigDecimal("12000.50"), LocalDate.of(2025, 5, 1));
+        full.setVersion(3L);
+        Customer sparse = customer("jagan", "jagan@gmail.com", null, null);
+
+        long written = store.writeSnapshot(sink -> {
+            sink.accept(full);
+            sink.accept(sparse);
+        });
+        List<Customer> read = new ArrayList<>();
+        long count = store.readSnapshot(read::add);
+
+        assertEquals(2, written);
+        assertEquals(2, count);
+        assertEquals(full.getId(), read.get(0).getId());
+        assertEquals("harinath", read.get(0).getName());
+        assertEquals("harinath.ediga23@gmail.com", read.get(0).getEmail());
+        assertEquals(new BigDecimal("12000.50"), read.get(0).getAnnualSpend());
+        assertEquals(LocalDate.of(2025, 5, 1), read.get(0).getLastPurchaseDate());
+        assertEquals(3L, read.get(0).getVersion());
+        assertNull(read.get(1).getAnnualSpend());
+        assertNull(read.get(1).getLastPurchaseDate());
+    }
+
+    @Test
+    void readSnapshot_detectsCorruption() throws IOException {
+        store.writeSnapshot(sink -> sink.accept(customer("a", "a@example.com", BigDecimal.TEN, null)));
+        Path file = directory.resolve("customers.snap");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[12] ^= 0x7f;
+        Files.write(file, bytes);
+
+        assertThrows(IOException.class, () -> store.readSnapshot(customer -> { }));
+    }
+
+    @Test
+    void journal_replaysRotatedThenCurrentEntries() throws IOException {
+        Customer first = customer("a", "a@example.com", BigDecimal.ONE, null);
+        Customer second = customer("b", "b@example.com", BigDecimal.TEN, LocalDate.of(2025, 1, 1));
+        store.appendSaved(first);
+        store.rotateJournal();
+        store.appendSaved(second);
+        store.appendDeleted(first.getId(), 4);
+
+        List<String> replayed = new ArrayList<>();
+        long entries = store.replayJournal(new CustomerSnapshotStore.JournalVisitor() {
+            @Override
+            public void saved(Customer customer) {
+                replayed.add("saved " + customer.getName());
+            }
+
+            @Override
+            public void deleted(UUID id, long version) {
+                replayed.add("deleted " + id + " at version " + version);
+            }
+        });
+
+        assertEquals(3, entries);
+        assertEquals(List.of("saved a", "saved b", "deleted " + first.getId() + " at version 4"), replayed);
+
+        store.discardRotatedJournal();
+        assertEquals(2, store.replayJournal(new CountingVisitor()));
+    }
+
+    @Test
+    void journal_ignoresTornTail() throws IOException {
+        store.appendSaved(customer("a", "a@example.com", BigDecimal.ONE, null));
+        store.close();
+        Files.write(directory.resolve("customers.journal"), new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        assertEquals(1, store.replayJournal(new CountingVisitor()));
+    }
+
+    @Test
+    void filesLargerThanOneMapping_areReadWindowByWindow() throws IOException {
+        // records are 60 to 120 bytes, so most of them straddle a window boundary
+        ReflectionTestUtils.setField(store, "mappingWindow", 128);
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            customers.add(customer("c".repeat(i), i + "@example.com", BigDecimal.valueOf(i), null));
+        }
+        store.writeSnapshot(sink -> customers.forEach(sink));
+        customers.forEach(customer -> {
+            try {
+                store.appendSaved(customer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        List<String> read = new ArrayList<>();
+        long count = store.readSnapshot(customer -> read.add(customer.getName()));
+        List<String> replayed = new ArrayList<>();
+        long entries = store.replayJournal(new CountingVisitor() {
+            @Override
+            public void saved(Customer customer) {
+                replayed.add(customer.getName());
+            }
+        });
+
+        List<String> names = customers.stream().map(Customer::getName).toList();
+        assertEquals(50, count);
+        assertEquals(names, read);
+        assertEquals(50, entries);
+        assertEquals(names, replayed);
+    }
+
+    private Customer customer(String name, String email, BigDecimal annualSpend, LocalDate lastPurchaseDate) {
+        Customer customer = new Customer();
+        customer.setId(UUID.randomUUID());
+        customer.setName(name);
+        customer.setEmail(email);
+        customer.setAnnualSpend(annualSpend);
+        customer.setLastPurchaseDate(lastPurchaseDate);
+        return customer;
+    }
+
+    private static class CountingVisitor implements CustomerSnapshotStore.JournalVisitor {
+        @Override
+        public void saved(Customer customer) {
+        }
+
+        @Override
+        public void deleted(UUID id, long version) {
+        }
+    }
+}
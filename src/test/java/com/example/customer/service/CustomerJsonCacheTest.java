@@ -0,0 +1,80 @@
+package com.example.customer.service;
+
+import com.example.customer.model.Customer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerJsonCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final CustomerJsonCache cache = new CustomerJsonCache(objectMapper, 1 << 20);
+
+    @Test
+    void toJson_reusesBytesForSameVersion() {
+        Customer customer = customer(1L);
+
+        byte[] first = cache.toJson(customer);
+        byte[] second = cache.toJson(customer(1L, customer.getId()));
+
+        assertSame(first, second);
+        assertTrue(new String(first, StandardCharsets.UTF_8).contains("\"lastPurchaseDate\":\"" + LocalDate.now() + "\""));
+    }
+
+    @Test
+    void toJson_reserializesNewVersion() {
+        Customer customer = customer(1L);
+        byte[] first = cache.toJson(customer);
+
+        customer.setVersion(2L);
+        customer.setName("renamed");
+        byte[] second = cache.toJson(customer);
+
+        assertNotSame(first, second);
+        assertTrue(new String(second, StandardCharsets.UTF_8).contains("\"name\":\"renamed\""));
+    }
+
+    @Test
+    void onSaved_invalidatesEntry() {
+        Customer customer = customer(1L);
+        byte[] first = cache.toJson(customer);
+
+        cache.onSaved(customer);
+
+        assertNotSame(first, cache.toJson(customer));
+    }
+
+    @Test
+    void disabledCache_alwaysSerializes() {
+        CustomerJsonCache disabled = new CustomerJsonCache(objectMapper, 0);
+        Customer customer = customer(1L);
+
+        assertNotSame(disabled.toJson(customer), disabled.toJson(customer));
+    }
+
+    private Customer customer(Long version) {
+        return customer(version, UUID.randomUUID());
+    }
+
+    private Customer customer(Long version, UUID id) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setName("cached");
+        customer.setEmail("cached@example.com");
+        customer.setAnnualSpend(new BigDecimal("1500.00"));
+        customer.setLastPurchaseDate(LocalDate.now());
+        customer.setVersion(version);
+        return customer;
+    }
+}
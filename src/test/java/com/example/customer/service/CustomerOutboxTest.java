@@ -0,0 +1,115 @@
+package com.example.customer.service;
+
+import com.example.customer.model.Customer;
+import com.example.customer.model.OutboxEvent;
+import com.example.customer.model.PurchaseEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"spring.datasource.url=jdbc:h2:mem:outbox-test", "customer.outbox.poll-interval-ms=3600000"})
+class CustomerOutboxTest {
+
+    @Autowired
+    private CustomerService service;
+
+    @Autowired
+    private PurchaseAggregator aggregator;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private RecordingPublisher publisher;
+
+    @Autowired
+    private TransactionTemplate transactions;
+
+    @TestConfiguration
+    static class PublisherConfig {
+        @Bean
+        @Primary
+        RecordingPublisher recordingPublisher() {
+            return new RecordingPublisher();
+        }
+    }
+
+    static class RecordingPublisher implements CustomerEventPublisher {
+        private final List<OutboxEvent> published = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publish(List<OutboxEvent> events) {
+            published.addAll(events);
+        }
+
+        List<OutboxEvent> eventsFor(UUID customerId) {
+            return published.stream().filter(event -> event.getCustomerId().equals(customerId)).toList();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        relay.relay();
+    }
+
+    @Test
+    void changes_arePublishedInOrderWithCommittedVersions() {
+        Customer created = service.create(customer("outbox", "outbox@example.com"));
+        UUID id = created.getId();
+        service.update(id, customer("outbox", "outbox.updated@example.com"));
+        PurchaseEvent purchase = new PurchaseEvent();
+        purchase.setAmount(new BigDecimal("10.00"));
+        service.recordPurchase(id, purchase);
+        aggregator.flush();
+        service.delete(id);
+
+        relay.relay();
+
+        List<OutboxEvent> events = publisher.eventsFor(id);
+        assertEquals(List.of(OutboxEvent.Type.CREATED, OutboxEvent.Type.UPDATED, OutboxEvent.Type.UPDATED, OutboxEvent.Type.DELETED),
+                events.stream().map(OutboxEvent::getType).toList());
+        List<Long> versions = new ArrayList<>();
+        events.forEach(event -> versions.add(event.getCustomerVersion()));
+        assertEquals(Arrays.asList(0L, 1L, 2L, null), versions);
+        assertTrue(events.get(1).getPayload().contains("outbox.updated@example.com"));
+    }
+
+    @Test
+    void rolledBackChange_isNeverPublished() {
+        Customer[] created = new Customer[1];
+        transactions.executeWithoutResult(status -> {
+            created[0] = service.create(customer("rolled back", "rolled.back@example.com"));
+            status.setRollbackOnly();
+        });
+
+        relay.relay();
+
+        assertTrue(publisher.eventsFor(Objects.requireNonNull(created[0].getId())).isEmpty());
+    }
+
+    private Customer customer(String name, String email) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setEmail(email);
+        customer.setAnnualSpend(new BigDecimal("100.00"));
+        customer.setLastPurchaseDate(LocalDate.now());
+        return customer;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.customer.service;
+
+import com.example.customer.model.Customer;
+import com.example.customer.service.CustomerSegmentIndex.SegmentQuery;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerSegmentIndexTest {
+
+    private final CustomerSegmentIndex index = new CustomerSegmentIndex();
+
+    @Test
+    void count_filtersBySpendDateAndTier() {
+        LocalDate today = LocalDate.now();
+        index.put(customer(UUID.randomUUID(), "12000.00", today.minusMonths(1)));  // platinum
+        index.put(customer(UUID.randomUUID(), "5000.00", today.minusMonths(4)));   // gold
+        index.put(customer(UUID.randomUUID(), "2500.50", today.minusMonths(8)));   // gold
+        index.put(customer(UUID.randomUUID(), "300.00", today.minusMonths(2)));    // silver
+        index.put(customer(UUID.randomUUID(), null, null));                        // silver
+
+        assertEquals(5, index.count(query(null, null, null, null, SegmentQuery.ALL_TIERS)));
+        assertEquals(2, index.count(query("2000", "8000", today.minusMonths(9), today.minusMonths(3), SegmentQuery.ALL_TIERS)));
+        assertEquals(1, index.count(query("2500.50", "2500.50", null, null, SegmentQuery.ALL_TIERS)));
+        assertEquals(4, index.count(query("0", null, null, null, SegmentQuery.ALL_TIERS)));
+        assertEquals(1, index.count(query(null, null, null, null, 1 << CustomerSegmentIndex.PLATINUM)));
+        assertEquals(2, index.count(query(null, null, null, null, 1 << CustomerSegmentIndex.SILVER)));
+        assertEquals(0, index.count(query("8000", "2000", null, null, SegmentQuery.ALL_TIERS)));
+    }
+
+    @Test
+    void withinRange_comparesAsUnsigned() {
+        assertEquals(1, CustomerSegmentIndex.withinRange(0, 0));
+        assertEquals(1, CustomerSegmentIndex.withinRange(5, 5));
+        assertEquals(0, CustomerSegmentIndex.withinRange(6, 5));
+        assertEquals(0, CustomerSegmentIndex.withinRange(-1, 5));
+        assertEquals(1, CustomerSegmentIndex.withinRange(Long.MAX_VALUE + 1, -1));
+        assertEquals(1, CustomerSegmentIndex.withinRange(-1, -1));
+        assertEquals(0, CustomerSegmentIndex.withinRange(-1, Long.MAX_VALUE));
+    }
+
+    @Test
+    void ids_pagesThroughMatchesInStableOrder() {
+        List<UUID> all = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            UUID id = UUID.randomUUID();
+            all.add(id);
+            index.put(customer(id, "100", LocalDate.now()));
+        }
+        SegmentQuery everyone = query(null, null, null, null, SegmentQuery.ALL_TIERS);
+
+        List<UUID> paged = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            paged.addAll(index.ids(everyone, page * 100L, 100));
+        }
+
+        assertEquals(all, paged);
+    }
+
+    @Test
+    void randomUpdatesAndRemovals_matchNaiveModel() {
+        Random random = new Random(42);
+        Map<UUID, Customer> model = new HashMap<>();
+        List<UUID> known = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            int action = random.nextInt(10);
+            if (action < 6 || known.isEmpty()) {
+                UUID id = UUID.randomUUID();
+                known.add(id);
+                put(model, customer(id, String.valueOf(random.nextInt(20_000)), LocalDate.now().minusDays(random.nextInt(800))));
+            } else if (action < 8) {
+                UUID id = known.get(random.nextInt(known.size()));
+                put(model, customer(id, String.valueOf(random.nextInt(20_000)), LocalDate.now().minusDays(random.nextInt(800))));
+            } else {
+                UUID id = known.remove(random.nextInt(known.size()));
+                index.onDeleted(model.remove(id));
+            }
+        }
+
+        SegmentQuery segment = query("2000", "8000", LocalDate.now().minusMonths(9), LocalDate.now().minusMonths(3),
+                SegmentQuery.ALL_TIERS);
+        long expected = model.values().stream()
+                .filter(c -> c.getAnnualSpend().compareTo(new BigDecimal("2000")) >= 0
+                        && c.getAnnualSpend().compareTo(new BigDecimal("8000")) <= 0
+                        && !c.getLastPurchaseDate().isBefore(LocalDate.now().minusMonths(9))
+                        && !c.getLastPurchaseDate().isAfter(LocalDate.now().minusMonths(3)))
+                .count();
+        assertEquals(model.size(), index.size());
+        assertEquals(expected, index.count(segment));
+        assertEquals(new HashSet<>(model.keySet()),
+                new HashSet<>(index.ids(query(null, null, null, null, SegmentQuery.ALL_TIERS), 0, 100_000)));
+    }
+
+    private void put(Map<UUID, Customer> model, Customer customer) {
+        model.put(customer.getId(), customer);
+        index.onSaved(customer);
+    }
+
+    private static SegmentQuery query(String minSpend, String maxSpend, LocalDate from, LocalDate to, int tierMask) {
+        return new SegmentQuery(
+                minSpend == null ? null : CustomerSegmentIndex.toCents(new BigDecimal(minSpend)),
+                maxSpend == null ? null : CustomerSegmentIndex.toCents(new BigDecimal(maxSpend)),
+                from == null ? null : (int) from.toEpochDay(),
+                to == null ? null : (int) to.toEpochDay(),
+                tierMask);
+    }
+
+    private static Customer customer(UUID id, String annualSpend, LocalDate lastPurchaseDate) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setAnnualSpend(annualSpend == null ? null : new BigDecimal(annualSpend));
+        customer.setLastPurchaseDate(lastPurchaseDate);
+        return customer;
+    }
+}
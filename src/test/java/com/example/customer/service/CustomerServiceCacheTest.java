@@ -0,0 +1,103 @@
+package com.example.customer.service;
+
+import com.example.customer.model.Customer;
+import com.example.customer.model.PurchaseEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class CustomerServiceCacheTest {
+
+    @Autowired
+    private CustomerService service;
+
+    @Autowired
+    private PurchaseAggregator aggregator;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getById_isServedFromSecondLevelCache() {
+        Customer created = service.create(customer("cached", "cached@example.com"));
+        long queries = statistics.getPrepareStatementCount();
+
+        service.getById(created.getId());
+        service.getById(created.getId());
+
+        assertEquals(queries, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getDomainDataRegionStatistics(Customer.CACHE_REGION).getHitCount() >= 2);
+    }
+
+    @Test
+    void getByEmail_isServedFromQueryCache() {
+        service.create(customer("query cached", "query.cached@example.com"));
+
+        service.getByEmail("query.cached@example.com");
+        long queries = statistics.getPrepareStatementCount();
+        service.getByEmail("query.cached@example.com");
+
+        assertEquals(queries, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void flushedPurchases_evictStaleEntries() {
+        Customer created = service.create(customer("buyer", "buyer@example.com"));
+        service.getById(created.getId());
+
+        PurchaseEvent event = new PurchaseEvent();
+        event.setAmount(new BigDecimal("250.00"));
+        event.setPurchaseDate(LocalDate.now());
+        service.recordPurchase(created.getId(), event);
+        aggregator.flush();
+
+        assertEquals(0, new BigDecimal("1250.00").compareTo(service.getById(created.getId()).orElseThrow().getAnnualSpend()));
+    }
+
+    @Test
+    void update_ofStaleCachedCustomer_rereadsAndSucceeds() {
+        Customer created = service.create(customer("stale", "stale@example.com"));
+        service.getById(created.getId());
+        // a JDBC batch update has committed but not yet evicted the cached copy
+        jdbcTemplate.update("UPDATE customer SET annual_spend = 1250.00, version = version + 1 WHERE id = ?", created.getId());
+
+        Customer changes = customer("stale updated", "stale@example.com");
+        changes.setAnnualSpend(new BigDecimal("3000.00"));
+        Customer updated = service.update(created.getId(), changes);
+
+        assertEquals(created.getVersion() + 2, updated.getVersion());
+        assertEquals("stale updated", service.getById(created.getId()).orElseThrow().getName());
+        assertEquals(0, new BigDecimal("3000.00").compareTo(jdbcTemplate.queryForObject(
+                "SELECT annual_spend FROM customer WHERE id = ?", BigDecimal.class, created.getId())));
+    }
+
+    private Customer customer(String name, String email) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setEmail(email);
+        customer.setAnnualSpend(new BigDecimal("1000.00"));
+        customer.setLastPurchaseDate(LocalDate.now());
+        return customer;
+    }
+}
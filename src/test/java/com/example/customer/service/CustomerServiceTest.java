@@ -2,13 +2,19 @@ package com.example.customer.service;
 
 import com.example.customer.exception.CustomerNotFoundException;
 import com.example.customer.model.Customer;
+import com.example.customer.model.PurchaseEvent;
+import com.example.customer.repository.CustomerCache;
 import com.example.customer.repository.CustomerRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -24,6 +30,21 @@ class CustomerServiceTest {
     @Mock
     private CustomerRepository repository;
 
+    @Mock
+    private PurchaseAggregator purchaseAggregator;
+
+    @Spy
+    private CustomerPartitions partitions = new CustomerPartitions();
+
+    @Mock
+    private CustomerChangeNotifier changes;
+
+    @Mock
+    private CustomerCache cache;
+
+    @Spy
+    private TransactionTemplate transactions = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private CustomerService service;
 
@@ -286,6 +307,56 @@ class CustomerServiceTest {
         verify(repository, never()).save(any(Customer.class));
     }
 
+    @Test
+    void update_versionConflict_rereadsAndRetries() {
+        Customer updated = new Customer();
+        updated.setName("Harinath Ediga");
+        updated.setEmail("harinath.ediga23@gmail.com");
+        updated.setAnnualSpend(BigDecimal.valueOf(500.0));
+        when(repository.findById(customerId)).thenReturn(Optional.of(customer));
+        when(repository.save(any(Customer.class))).thenReturn(customer);
+        doThrow(new ObjectOptimisticLockingFailureException(Customer.class, customerId)).doNothing().when(repository).flush();
+
+        Customer result = service.update(customerId, updated);
+
+        assertEquals("harinath ediga", result.getName());
+        verify(cache, times(1)).evict(List.of(customerId));
+        verify(repository, times(2)).findById(customerId);
+        verify(changes, times(1)).saved(customer);
+    }
+
+    @Test
+    void update_persistentConflict_isRethrown() {
+        when(repository.findById(customerId)).thenReturn(Optional.of(customer));
+        when(repository.save(any(Customer.class))).thenReturn(customer);
+        doThrow(new ObjectOptimisticLockingFailureException(Customer.class, customerId)).when(repository).flush();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> service.update(customerId, new Customer()));
+
+        verify(repository, times(3)).findById(customerId);
+        verify(changes, never()).saved(any());
+    }
+
+    @Test
+    void delete_existingCustomer_publishesDeletion() {
+        when(repository.findById(customerId)).thenReturn(Optional.of(customer));
+
+        service.delete(customerId);
+
+        verify(repository, times(1)).delete(customer);
+        verify(changes, times(1)).deleted(customer);
+    }
+
+    @Test
+    void delete_unknownCustomer_throwsAndPublishesNothing() {
+        when(repository.findById(customerId)).thenReturn(Optional.empty());
+
+        assertThrows(CustomerNotFoundException.class, () -> service.delete(customerId));
+
+        verify(repository, never()).delete(any(Customer.class));
+        verify(changes, never()).deleted(any());
+    }
+
     @Test
     void getById_success() {
         when(repository.findById(customerId)).thenReturn(Optional.of(customer));
@@ -310,4 +381,14 @@ class CustomerServiceTest {
         assertEquals("Gold", result.get(0).getTier());
         verify(repository, times(1)).findAll();
     }
+
+    @Test
+    void recordPurchase_delegatesToAggregator() {
+        PurchaseEvent event = new PurchaseEvent();
+        event.setAmount(BigDecimal.valueOf(250.0));
+
+        service.recordPurchase(customerId, event);
+
+        verify(purchaseAggregator, times(1)).record(customerId, event);
+    }
 }
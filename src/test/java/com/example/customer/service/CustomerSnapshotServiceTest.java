@@ -0,0 +1,152 @@
+package com.example.customer.service;
+
+import com.example.customer.model.Customer;
+import com.example.customer.repository.CustomerBatchRepository;
+import com.example.customer.repository.CustomerCache;
+import com.example.customer.repository.CustomerSnapshotStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerSnapshotServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private CustomerBatchRepository batchRepository;
+
+    @Spy
+    private CustomerPartitions partitions = new CustomerPartitions();
+
+    @Mock
+    private CustomerCache cache;
+
+    @Spy
+    private CustomerSnapshotStore store = new CustomerSnapshotStore();
+
+    @InjectMocks
+    private CustomerSnapshotService service;
+
+    // the table as the restore leaves it
+    private final Map<UUID, Customer> table = new HashMap<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ReflectionTestUtils.setField(store, "directory", directory.toString());
+        store.init();
+        lenient().doAnswer(invocation -> {
+            List<Customer> customers = invocation.getArgument(0);
+            customers.forEach(customer -> table.put(customer.getId(), customer));
+            return null;
+        }).when(batchRepository).upsert(anyList());
+        lenient().doAnswer(invocation -> {
+            List<UUID> ids = invocation.getArgument(0);
+            ids.forEach(table::remove);
+            return null;
+        }).when(batchRepository).delete(anyList());
+    }
+
+    @Test
+    void restore_keepsHighestVersionWhenAppendedOutOfOrder() throws IOException {
+        UUID id = UUID.randomUUID();
+        store.appendSaved(customer(id, "after put", 6));
+        store.appendSaved(customer(id, "after purchase flush", 5));
+
+        service.run(null);
+
+        assertEquals("after put", table.get(id).getName());
+        assertEquals(6L, table.get(id).getVersion());
+    }
+
+    @Test
+    void restore_deletionWinsOverSaveOfItsVersionAppendedLater() throws IOException {
+        UUID deleted = UUID.randomUUID();
+        UUID savedAgain = UUID.randomUUID();
+        store.appendSaved(customer(deleted, "deleted", 2));
+        store.appendDeleted(deleted, 3);
+        store.appendSaved(customer(deleted, "deleted", 3));
+        store.appendDeleted(savedAgain, 1);
+        store.appendSaved(customer(savedAgain, "saved after", 2));
+
+        service.run(null);
+
+        assertFalse(table.containsKey(deleted));
+        assertEquals("saved after", table.get(savedAgain).getName());
+    }
+
+    @Test
+    void restore_ignoresJournalEntriesOlderThanTheSnapshot() throws IOException {
+        UUID id = UUID.randomUUID();
+        store.writeSnapshot(sink -> sink.accept(customer(id, "in snapshot", 7)));
+        store.appendSaved(customer(id, "appended late", 6));
+
+        service.run(null);
+
+        assertEquals("in snapshot", table.get(id).getName());
+        assertEquals(7L, table.get(id).getVersion());
+    }
+
+    @Test
+    void failedAppend_isCountedAndCoveredBySnapshot() throws IOException {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        service.bindTo(registry);
+        service.run(null);
+        Customer customer = customer(UUID.randomUUID(), "not journaled", 1);
+        doThrow(new IOException("No space left on device")).when(store).appendSaved(any());
+        doAnswer(invocation -> {
+            invocation.<Consumer<Customer>>getArgument(0).accept(customer);
+            return null;
+        }).when(batchRepository).forEach(any());
+
+        service.onSaved(customer);
+
+        assertEquals(1.0, registry.get("customer.snapshot.journal.failures").functionCounter().count());
+        assertEquals(1.0, registry.get("customer.snapshot.journal.incomplete").gauge().value());
+
+        service.snapshotIfJournalIncomplete();
+
+        assertEquals(0.0, registry.get("customer.snapshot.journal.incomplete").gauge().value());
+        List<UUID> snapshotted = new ArrayList<>();
+        store.readSnapshot(restored -> snapshotted.add(restored.getId()));
+        assertEquals(List.of(customer.getId()), snapshotted);
+
+        service.snapshotIfJournalIncomplete();
+
+        verify(batchRepository, times(1)).forEach(any());
+    }
+
+    private Customer customer(UUID id, String name, long version) {
+        Customer customer = new Customer();
+        customer.setId(id);
+        customer.setName(name);
+        customer.setEmail(name.replace(' ', '.') + "@example.com");
+        customer.setAnnualSpend(BigDecimal.TEN);
+        customer.setVersion(version);
+        return customer;
+    }
+}
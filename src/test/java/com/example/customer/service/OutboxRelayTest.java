@@ -0,0 +1,88 @@
+package com.example.customer.service;
+
+import com.example.customer.model.OutboxEvent;
+import com.example.customer.repository.CustomerOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private CustomerOutboxRepository outboxRepository;
+
+    @Spy
+    private CustomerPartitions partitions = new CustomerPartitions();
+
+    @Mock
+    private CustomerEventPublisher publisher;
+
+    @InjectMocks
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay.start();
+    }
+
+    @Test
+    void relay_publishesDueEventsAndDeletesThem() {
+        List<OutboxEvent> events = List.of(event(1, UUID.randomUUID()), event(2, UUID.randomUUID()));
+        when(outboxRepository.findDue(any(), anyInt())).thenReturn(events);
+        when(outboxRepository.backlog()).thenReturn(new CustomerOutboxRepository.Backlog(0, null));
+
+        relay.relay();
+
+        verify(publisher).publish(events);
+        verify(outboxRepository).delete(List.of(1L, 2L));
+        verify(outboxRepository, times(1)).findDue(any(), anyInt());
+    }
+
+    @Test
+    void relay_failedEventHoldsBackLaterEventsOfSameCustomerOnly() {
+        UUID failing = UUID.randomUUID();
+        OutboxEvent first = event(1, failing);
+        OutboxEvent other = event(2, UUID.randomUUID());
+        OutboxEvent later = event(3, failing);
+        when(outboxRepository.findDue(any(), anyInt())).thenReturn(List.of(first, other, later));
+        when(outboxRepository.backlog()).thenReturn(new CustomerOutboxRepository.Backlog(2, first.getCreatedAt()));
+        doThrow(new IllegalStateException("broker down")).when(publisher).publish(argThat(batch -> batch.contains(first)));
+
+        relay.relay();
+
+        verify(publisher).publish(List.of(other));
+        verify(publisher, never()).publish(List.of(later));
+        verify(outboxRepository).retryAt(eq(1L), any(Instant.class));
+        verify(outboxRepository).delete(List.of(2L));
+    }
+
+    @Test
+    void backoff_doublesUpToMaximum() {
+        assertEquals(Duration.ofSeconds(1), relay.backoff(0));
+        assertEquals(Duration.ofSeconds(8), relay.backoff(3));
+        assertEquals(Duration.ofMinutes(5), relay.backoff(30));
+    }
+
+    private static OutboxEvent event(long id, UUID customerId) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setCustomerId(customerId);
+        event.setType(OutboxEvent.Type.UPDATED);
+        event.setCreatedAt(Instant.now());
+        return event;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.customer.service;
+
+import com.example.customer.exception.CustomerNotFoundException;
+import com.example.customer.model.Customer;
+import com.example.customer.tracing.RequestTrace;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("partitioned")
+class PartitionedCustomerServiceTest {
+
+    @Autowired
+    private CustomerService service;
+
+    @Autowired
+    private CustomerPartitions partitions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void customersAreStoredOnlyInTheirHashedPartition() {
+        List<Customer> created = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            created.add(service.create(customer("Partitioned " + i, "partitioned" + i + "@example.com")));
+        }
+
+        for (Customer customer : created) {
+            int owner = partitions.partitionOf(customer.getId());
+            for (int partition = 0; partition < partitions.count(); partition++) {
+                Integer rows = partitions.onPartition(partition, () -> jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM customer WHERE id = ?", Integer.class, customer.getId()));
+                assertEquals(partition == owner ? 1 : 0, rows);
+            }
+        }
+    }
+
+    @Test
+    void lookupsFindCustomersAcrossPartitions() {
+        Customer first = service.create(customer("Fan Out", "fan.out.1@example.com"));
+        Customer second = service.create(customer("Fan Out", "fan.out.2@example.com"));
+
+        assertEquals(first.getId(), service.getById(first.getId()).orElseThrow().getId());
+        assertEquals(second.getId(), service.getByEmail("Fan.Out.2@example.com").orElseThrow().getId());
+        assertEquals(2, service.getByName("fan out").size());
+        assertTrue(service.getAll().size() >= 2);
+
+        service.delete(first.getId());
+        assertTrue(service.getById(first.getId()).isEmpty());
+        assertEquals(0, partitions.onPartitionOf(first.getId(), () -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM customer WHERE id = ?", Integer.class, first.getId())));
+        assertThrows(CustomerNotFoundException.class, () -> service.delete(first.getId()));
+    }
+
+    @Test
+    void fanOutTimingsAreAddedToTheCallersTrace() {
+        service.create(customer("Traced Fan Out", "traced.fan.out@example.com"));
+        RequestTrace trace = new RequestTrace("GET", "/customers");
+        RequestTrace.bind(trace);
+        try {
+            assertEquals(1, service.getByName("traced fan out").size());
+        } finally {
+            RequestTrace.bind(null);
+        }
+
+        assertTrue(trace.getPhaseMillis().get("repository") > 0);
+        assertTrue(trace.getPhaseMillis().get("repository") <= trace.getPhaseMillis().get("service"));
+    }
+
+    @Test
+    void updateOfCachedCustomerIsWrittenToItsPartition() {
+        Customer created = service.create(customer("Before Update", "before.update@example.com"));
+        service.getById(created.getId());
+
+        Customer changes = customer("After Update", "after.update@example.com");
+        changes.setAnnualSpend(BigDecimal.valueOf(7500));
+        service.update(created.getId(), changes);
+
+        String name = partitions.onPartitionOf(created.getId(), () -> jdbcTemplate.queryForObject(
+                "SELECT name FROM customer WHERE id = ?", String.class, created.getId()));
+        assertEquals("after update", name);
+        assertEquals(0, BigDecimal.valueOf(7500).compareTo(service.getById(created.getId()).orElseThrow().getAnnualSpend()));
+        assertEquals(created.getId(), service.getByEmail("after.update@example.com").orElseThrow().getId());
+    }
+
+    @Test
+    void seedRowsAreMovedToTheirPartition() {
+        assertTrue(service.getByEmail("harinath.ediga23@gmail.com").isPresent());
+        assertTrue(service.getByEmail("jagan@gmail.com").isPresent());
+        assertTrue(service.getByEmail("chandra@gmail.com").isPresent());
+    }
+
+    private Customer customer(String name, String email) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setEmail(email);
+        customer.setAnnualSpend(BigDecimal.valueOf(500));
+        return customer;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.customer.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Partitioned mode without the outbox, whose commit hook would otherwise flush writes on the right partition
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "customer.outbox.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:customerdb-no-outbox;QUERY_CACHE_SIZE=64",
+        "customer.partitions.datasources[0].url=jdbc:h2:mem:customerdb-no-outbox-p0;QUERY_CACHE_SIZE=64",
+        "customer.partitions.datasources[1].url=jdbc:h2:mem:customerdb-no-outbox-p1;QUERY_CACHE_SIZE=64",
+        "customer.partitions.datasources[2].url=jdbc:h2:mem:customerdb-no-outbox-p2;QUERY_CACHE_SIZE=64",
+        "customer.partitions.datasources[3].url=jdbc:h2:mem:customerdb-no-outbox-p3;QUERY_CACHE_SIZE=64"
+})
+class PartitionedCustomerServiceWithoutOutboxTest extends PartitionedCustomerServiceTest {
+}
@@ -0,0 +1,122 @@
+package com.example.customer.service;
+
+import com.example.customer.exception.ServiceUnavailableException;
+import com.example.customer.model.PurchaseEvent;
+import com.example.customer.model.PurchaseTotal;
+import com.example.customer.repository.CustomerBatchRepository;
+import com.example.customer.repository.CustomerCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PurchaseAggregatorTest {
+
+    @Mock
+    private CustomerBatchRepository batchRepository;
+
+    @Spy
+    private CustomerPartitions partitions = new CustomerPartitions();
+
+    @Mock
+    private CustomerChangeNotifier changes;
+
+    @Mock
+    private CustomerCache cache;
+
+    @Spy
+    private TransactionTemplate transactions = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @InjectMocks
+    private PurchaseAggregator aggregator;
+
+    @Test
+    void flush_sumsAmountsAndKeepsLatestDatePerCustomer() {
+        UUID customerId = UUID.randomUUID();
+        when(batchRepository.addPurchases(anyList())).thenReturn(new int[]{1});
+
+        aggregator.record(customerId, purchase(100, LocalDate.of(2025, 6, 1)));
+        aggregator.record(customerId, purchase(50, LocalDate.of(2025, 7, 1)));
+        aggregator.record(customerId, purchase(25, LocalDate.of(2025, 5, 1)));
+        aggregator.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PurchaseTotal>> captor = ArgumentCaptor.forClass(List.class);
+        verify(batchRepository, times(1)).addPurchases(captor.capture());
+        List<PurchaseTotal> totals = captor.getValue();
+        assertEquals(1, totals.size());
+        assertEquals(customerId, totals.get(0).customerId());
+        assertEquals(0, BigDecimal.valueOf(175).compareTo(totals.get(0).amount()));
+        assertEquals(LocalDate.of(2025, 7, 1), totals.get(0).lastPurchaseDate());
+        verify(cache).evict(List.of(customerId));
+    }
+
+    @Test
+    void flush_withNothingBuffered_doesNotTouchDatabase() {
+        aggregator.flush();
+
+        verify(batchRepository, never()).addPurchases(anyList());
+    }
+
+    @Test
+    void flush_failure_requeuesTotals() {
+        UUID customerId = UUID.randomUUID();
+        when(batchRepository.addPurchases(anyList()))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenReturn(new int[]{1});
+
+        aggregator.record(customerId, purchase(100, LocalDate.of(2025, 6, 1)));
+        aggregator.flush();
+        aggregator.flush();
+
+        verify(batchRepository, times(2)).addPurchases(anyList());
+    }
+
+    @Test
+    void flush_failingRepeatedly_dropsTotalsAfterMaxAttempts() {
+        ReflectionTestUtils.setField(aggregator, "maxFlushAttempts", 2);
+        when(batchRepository.addPurchases(anyList())).thenThrow(new IllegalStateException("db down"));
+
+        aggregator.record(UUID.randomUUID(), purchase(100, LocalDate.of(2025, 6, 1)));
+        aggregator.flush();
+        aggregator.flush();
+        aggregator.flush();
+
+        verify(batchRepository, times(2)).addPurchases(anyList());
+    }
+
+    @Test
+    void shutdown_flushesAndRejectsNewPurchases() throws Exception {
+        when(batchRepository.addPurchases(anyList())).thenReturn(new int[]{1});
+        aggregator.record(UUID.randomUUID(), purchase(100, LocalDate.of(2025, 6, 1)));
+
+        aggregator.shutdown();
+
+        verify(batchRepository, times(1)).addPurchases(anyList());
+        assertThrows(ServiceUnavailableException.class,
+                () -> aggregator.record(UUID.randomUUID(), purchase(10, LocalDate.of(2025, 6, 1))));
+    }
+
+    private PurchaseEvent purchase(long amount, LocalDate date) {
+        PurchaseEvent event = new PurchaseEvent();
+        event.setAmount(BigDecimal.valueOf(amount));
+        event.setPurchaseDate(date);
+        return event;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.customer.service;
+
+import com.example.customer.model.BulkUpdateResult;
+import com.example.customer.model.Customer;
+import com.example.customer.model.SpendCorrection;
+import com.example.customer.repository.CustomerBatchRepository;
+import com.example.customer.repository.CustomerCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpendCorrectionServiceTest {
+
+    @Mock
+    private CustomerBatchRepository batchRepository;
+
+    @Spy
+    private CustomerPartitions partitions = new CustomerPartitions();
+
+    @Mock
+    private CustomerChangeNotifier changes;
+
+    @Mock
+    private CustomerCache cache;
+
+    @Spy
+    private TransactionTemplate transactions = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @InjectMocks
+    private SpendCorrectionService service;
+
+    @Test
+    void apply_writesInBatchesAndReportsUnknownIds() {
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        List<SpendCorrection> corrections = List.of(
+                correction(), correction(), correction(), correction(), correction());
+        when(batchRepository.correctSpend(anyList()))
+                .thenReturn(new int[]{1, 0})
+                .thenReturn(new int[]{1, 1})
+                .thenReturn(new int[]{0});
+
+        BulkUpdateResult result = service.apply(corrections);
+
+        verify(batchRepository, times(3)).correctSpend(anyList());
+        assertEquals(5, result.requested());
+        assertEquals(3, result.updated());
+        assertEquals(List.of(corrections.get(1).getId(), corrections.get(4).getId()), result.notFound());
+        verify(cache).evict(List.of(corrections.get(0).getId()));
+        verify(cache).evict(List.of(corrections.get(2).getId(), corrections.get(3).getId()));
+        verify(batchRepository, never()).findAll(anyList());
+    }
+
+    @Test
+    void apply_publishesReloadedCustomersToListeners() {
+        SpendCorrection correction = correction();
+        when(batchRepository.correctSpend(anyList())).thenReturn(new int[]{1});
+        when(changes.hasListeners()).thenReturn(true);
+        Customer reloaded = new Customer();
+        reloaded.setId(correction.getId());
+        when(batchRepository.findAll(List.of(correction.getId()))).thenReturn(List.of(reloaded));
+
+        service.apply(List.of(correction));
+
+        verify(changes).saved(reloaded);
+    }
+
+    private static SpendCorrection correction() {
+        return new SpendCorrection(UUID.randomUUID(), new BigDecimal("1234.50"), LocalDate.of(2025, 3, 1));
+    }
+}
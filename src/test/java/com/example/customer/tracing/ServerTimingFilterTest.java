@@ -0,0 +1,74 @@
+package com.example.customer.tracing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class ServerTimingFilterTest {
+
+    @Spy
+    private SlowRequestLog slowRequestLog = new SlowRequestLog(4);
+
+    @InjectMocks
+    private ServerTimingFilter filter;
+
+    @Test
+    void optedInRequest_getsServerTimingHeaderAndBody() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/customers/all");
+        request.addHeader(ServerTimingFilter.OPT_IN_HEADER, "on");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            RequestTrace trace = RequestTrace.enter(Phase.CONTROLLER);
+            RequestTrace service = RequestTrace.enter(Phase.SERVICE);
+            RequestTrace.exit(service, Phase.SERVICE);
+            RequestTrace.exit(trace, Phase.CONTROLLER);
+            res.getWriter().write("[]");
+        });
+
+        String header = response.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER);
+        assertNotNull(header);
+        assertTrue(header.startsWith("controller;dur="));
+        assertTrue(header.contains("service;dur="));
+        assertTrue(header.contains("total;dur="));
+        assertEquals("[]", response.getContentAsString());
+        assertNull(RequestTrace.current());
+    }
+
+    @Test
+    void plainRequest_hasNoHeader() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/customers/all"), response,
+                (req, res) -> assertNotNull(RequestTrace.current()));
+
+        assertNull(response.getHeader(ServerTimingFilter.SERVER_TIMING_HEADER));
+    }
+
+    @Test
+    void slowRequestLog_keepsRecentSlowRequestsSlowestFirst() throws Exception {
+        ReflectionTestUtils.setField(slowRequestLog, "slowThresholdMs", 0L);
+        for (int i = 0; i < 6; i++) {
+            long sleepNanos = i * 2_000_000L;
+            filter.doFilter(new MockHttpServletRequest("GET", "/customers/" + i), new MockHttpServletResponse(),
+                    (req, res) -> LockSupport.parkNanos(sleepNanos));
+        }
+
+        List<RequestTrace> slowest = slowRequestLog.slowest(10);
+
+        assertEquals(4, slowest.size());
+        assertEquals("/customers/5", slowest.get(0).getUri());
+        assertTrue(slowest.get(0).getTotalNanos() >= slowest.get(3).getTotalNanos());
+    }
+}